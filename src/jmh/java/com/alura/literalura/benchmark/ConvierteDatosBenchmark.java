@@ -0,0 +1,63 @@
+package com.alura.literalura.benchmark;
+
+import com.alura.literalura.dto.RespuestaLibrosDTO;
+import com.alura.literalura.service.ConvierteDatos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialización de una página de resultados de Gutendex con ConvierteDatos, desde cada una de las
+ * representaciones que recibe: cadena, flujo y buffer de bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConvierteDatosBenchmark {
+
+    private final ConvierteDatos convierteDatos = new ConvierteDatos();
+
+    private byte[] bytes;
+    private String json;
+
+    @Setup
+    public void cargar() {
+        bytes = Fixtures.leer(Fixtures.PAGINA_LIBROS);
+        json = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RespuestaLibrosDTO desdeCadena() {
+        return convierteDatos.obtenerDatos(json, RespuestaLibrosDTO.class);
+    }
+
+    @Benchmark
+    public RespuestaLibrosDTO desdeFlujo() {
+        return convierteDatos.obtenerDatos(new ByteArrayInputStream(bytes), RespuestaLibrosDTO.class);
+    }
+
+    @Benchmark
+    public RespuestaLibrosDTO desdeBuffer() {
+        return convierteDatos.obtenerDatos(ByteBuffer.wrap(bytes), RespuestaLibrosDTO.class);
+    }
+
+    @Benchmark
+    public String campoSiguiente() {
+        return convierteDatos.obtenerCampo(bytes, "next");
+    }
+}
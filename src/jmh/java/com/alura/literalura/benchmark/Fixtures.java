@@ -0,0 +1,36 @@
+package com.alura.literalura.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Acceso a las respuestas de Gutendex que usan los benchmarks como datos de entrada.
+ */
+final class Fixtures {
+
+    /**
+     * Página de resultados de /books/ con el formato completo de Gutendex (32 libros, resúmenes y formatos).
+     */
+    static final String PAGINA_LIBROS = "/gutendex/pagina-libros.json";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Lee un recurso del classpath completo en memoria.
+     *
+     * @param recurso La ruta del recurso.
+     * @return El contenido del recurso en bytes.
+     */
+    static byte[] leer(String recurso) {
+        try (InputStream flujo = Fixtures.class.getResourceAsStream(recurso)) {
+            if (flujo == null) {
+                throw new IllegalStateException("No existe el recurso " + recurso);
+            }
+            return flujo.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
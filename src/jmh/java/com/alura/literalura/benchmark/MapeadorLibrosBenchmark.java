@@ -0,0 +1,85 @@
+package com.alura.literalura.benchmark;
+
+import com.alura.literalura.dto.AutorDTO;
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.dto.RespuestaLibrosDTO;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.service.ConvierteDatos;
+import com.alura.literalura.service.MapeadorLibros;
+import com.alura.literalura.util.Normalizador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo en memoria que hace el registro de un título sobre una página de resultados ya deserializada:
+ * buscar la coincidencia exacta por título normalizado y convertir los DTO en entidades.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapeadorLibrosBenchmark {
+
+    private final MapeadorLibros mapeador = new MapeadorLibros();
+
+    private List<LibroDTO> libros;
+    private String tituloBuscado;
+
+    @Setup
+    public void cargar() {
+        RespuestaLibrosDTO respuesta = new ConvierteDatos()
+                .obtenerDatos(ByteBuffer.wrap(Fixtures.leer(Fixtures.PAGINA_LIBROS)), RespuestaLibrosDTO.class);
+        libros = respuesta.getLibros();
+        // El peor caso: la coincidencia es el último resultado de la página
+        tituloBuscado = libros.get(libros.size() - 1).getTitulo().toUpperCase();
+    }
+
+    /**
+     * Conversión de todos los resultados de la página en entidades Libro y Autor.
+     */
+    @Benchmark
+    public void mapearPagina(Blackhole blackhole) {
+        for (LibroDTO libroDTO : libros) {
+            Libro libro = mapeador.aLibro(libroDTO);
+            AutorDTO autorDTO = mapeador.primerAutor(libroDTO);
+            if (autorDTO != null) {
+                libro.setAutor(mapeador.aAutor(autorDTO));
+            }
+            blackhole.consume(libro);
+        }
+    }
+
+    /**
+     * Búsqueda de la coincidencia exacta del título en la página y conversión del libro encontrado.
+     */
+    @Benchmark
+    public Libro buscarYMapear() {
+        String buscado = Normalizador.normalizarTitulo(tituloBuscado);
+        for (LibroDTO libroDTO : libros) {
+            if (buscado.equals(Normalizador.normalizarTitulo(libroDTO.getTitulo()))) {
+                Libro libro = mapeador.aLibro(libroDTO);
+                AutorDTO autorDTO = mapeador.primerAutor(libroDTO);
+                if (autorDTO != null) {
+                    libro.setAutor(mapeador.aAutor(autorDTO));
+                }
+                return libro;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.alura.literalura.benchmark;
+
+import com.alura.literalura.dto.AutorResumen;
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.principal.VistaConsola;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formateo de listados largos en la consola. La salida se descarta para medir el formateo y la
+ * escritura en el PrintStream sin el coste del terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class VistaConsolaBenchmark {
+
+    @Param({"1000", "50000"})
+    private int filas;
+
+    private VistaConsola vista;
+    private List<LibroResumen> libros;
+    private List<AutorResumen> autores;
+
+    @Setup
+    public void preparar() {
+        vista = new VistaConsola(new PrintStream(OutputStream.nullOutputStream(), true));
+        libros = new ArrayList<>(filas);
+        autores = new ArrayList<>(filas);
+        String[] idiomas = {"en", "es", "fr", "pt"};
+        for (int i = 0; i < filas; i++) {
+            String autor = i % 17 == 0 ? null : "Autor número " + (i % 1000);
+            libros.add(new LibroResumen((long) i, "Título del libro " + i, autor, idiomas[i % idiomas.length], i * 7));
+            autores.add(new AutorResumen((long) i, "Autor número " + i, 1700 + i % 250, i % 5 == 0 ? null : 1780 + i % 250,
+                    (long) (i % 12), "Título A " + i + ", Título B " + i));
+        }
+    }
+
+    @Benchmark
+    public void listarLibros() {
+        libros.forEach(vista::mostrarLibro);
+    }
+
+    @Benchmark
+    public void listarAutoresConTitulos() {
+        autores.forEach(vista::mostrarAutorConTitulos);
+    }
+
+    @Benchmark
+    public void listarAutoresConCantidad() {
+        autores.forEach(vista::mostrarAutorConCantidad);
+    }
+}
@@ -1,32 +1,50 @@
 package com.alura.literalura;
 
 import com.alura.literalura.principal.Principal;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación Literalura.
  * Esta clase es el punto de entrada de la aplicación Spring Boot.
+ * Por defecto muestra el menú de consola; con el perfil "web" no hay menú y las operaciones
+ * se atienden como una API REST (ver el paquete controller).
+ * En ambos modos se ejecutan las tareas programadas, como la sincronización de descargas.
  */
 @SpringBootApplication
+@EnableScheduling
 public class LiteraluraApplication implements CommandLineRunner {
 
+	/**
+	 * Perfil que activa el modo web, sin menú de consola.
+	 */
+	public static final String PERFIL_WEB = "web";
+
+	/**
+	 * Propiedad del sistema con la que el pool de conexiones del cliente HTTP del JDK fija el keep-alive.
+	 */
+	private static final String KEEPALIVE_HTTP = "jdk.httpclient.keepalive.timeout";
+
 	/**
 	 * Inyección de dependencias del componente Menu.
 	 * El componente Menu se inyecta automáticamente mediante la anotación @Autowired.
 	 */
 	@Autowired
-	private final Principal principal;
+	private final ObjectProvider<Principal> principal;
 
 	/**
 	 * Constructor de la clase LiteraluraApplication.
 	 * Se utiliza para inyectar la dependencia Menu.
 	 *
-	 * @param principal Instancia de la clase Menu inyectada por Spring.
+	 * @param principal Proveedor de la clase Menu, que no existe en el modo web.
 	 */
-	public LiteraluraApplication(Principal principal) {
+	public LiteraluraApplication(ObjectProvider<Principal> principal) {
 		this.principal = principal;
 	}
 
@@ -37,10 +55,32 @@ public class LiteraluraApplication implements CommandLineRunner {
 	 * @param args Argumentos de línea de comandos pasados al iniciar la aplicación.
 	 */
 	public static void main(String[] args) {
-		SpringApplication.run(LiteraluraApplication.class, args);
+		SpringApplication aplicacion = new SpringApplication(LiteraluraApplication.class);
+		aplicacion.addListeners((ApplicationEnvironmentPreparedEvent evento) -> configurarKeepAliveHttp(evento));
+		ConfigurableApplicationContext contexto = aplicacion.run(args);
 		// Por qué: Este método inicia la aplicación Spring Boot.
 		// Cómo: Llama al método run de SpringApplication, pasando la clase LiteraluraApplication y los argumentos de línea de comandos.
 		// Cuándo: Se ejecuta cuando se inicia el programa desde la línea de comandos o desde un IDE.
+
+		if (!contexto.getEnvironment().matchesProfiles(PERFIL_WEB)) {
+			System.exit(SpringApplication.exit(contexto));
+		}
+		// Por qué: El servidor web que expone las métricas mantendría viva la aplicación después de salir del menú.
+		// Cómo: run retorna cuando termina el menú; se cierra el contexto y se termina el proceso con su código de salida.
+		// Cuándo: Se ejecuta al elegir la opción de salir del menú; en el modo web la aplicación sigue atendiendo peticiones.
+	}
+
+	/**
+	 * Fija el keep-alive del pool de conexiones del cliente HTTP del JDK con literalura.http.keep-alive.
+	 * El JDK lee la propiedad del sistema una sola vez, al crear el primer HttpClient de la JVM, así que se fija
+	 * antes de crear ningún bean; un valor dado con -Djdk.httpclient.keepalive.timeout tiene prioridad.
+	 *
+	 * @param evento El evento con el entorno ya preparado y el contexto aún sin crear.
+	 */
+	private static void configurarKeepAliveHttp(ApplicationEnvironmentPreparedEvent evento) {
+		if (System.getProperty(KEEPALIVE_HTTP) == null) {
+			System.setProperty(KEEPALIVE_HTTP, evento.getEnvironment().getProperty("literalura.http.keep-alive", "300"));
+		}
 	}
 
 	/**
@@ -52,7 +92,7 @@ public class LiteraluraApplication implements CommandLineRunner {
 	 */
 	@Override
 	public void run(String... args) throws Exception {
-		principal.mostrarMenu();
+		principal.ifAvailable(Principal::mostrarMenu);
 		// Por qué: Este método se utiliza para mostrar el menú principal de la aplicación después de que Spring Boot ha iniciado.
 		// Cómo: Llama al método mostrarMenu de la instancia inyectada de Menu.
 		// Cuándo: Se ejecuta automáticamente después de que la aplicación Spring Boot ha completado su inicio.
@@ -0,0 +1,152 @@
+package com.alura.literalura.config;
+
+import com.alura.literalura.model.Autor;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.LibroRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Configuración de la caché de segundo nivel y de la caché de consultas de Hibernate.
+ * Las regiones se guardan en un CacheManager de JCache implementado con Caffeine, creado aquí con un
+ * tamaño máximo y un tiempo de vida por región. Hibernate mantiene las regiones al día con las escrituras
+ * que hace la propia aplicación; el tiempo de vida acota cuánto puede tardar en verse un cambio hecho
+ * desde fuera de ella. Cada región publica sus aciertos y fallos en las métricas cache.gets.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    /**
+     * Región de las colecciones de libros de cada autor.
+     */
+    private static final String REGION_LIBROS_DE_AUTOR = Autor.class.getName() + ".libros";
+
+    /**
+     * Número máximo de autores en la caché de entidades.
+     */
+    @Value("${literalura.cache.hibernate.autores.tamano-maximo:10000}")
+    private long tamanoAutores;
+
+    /**
+     * Tiempo de vida de los autores en la caché de entidades.
+     */
+    @Value("${literalura.cache.hibernate.autores.ttl:1h}")
+    private Duration ttlAutores;
+
+    /**
+     * Número máximo de libros en la caché de entidades.
+     */
+    @Value("${literalura.cache.hibernate.libros.tamano-maximo:50000}")
+    private long tamanoLibros;
+
+    /**
+     * Tiempo de vida de los libros en la caché de entidades.
+     */
+    @Value("${literalura.cache.hibernate.libros.ttl:1h}")
+    private Duration ttlLibros;
+
+    /**
+     * Número máximo de colecciones de libros de autores en caché.
+     */
+    @Value("${literalura.cache.hibernate.libros-de-autor.tamano-maximo:10000}")
+    private long tamanoLibrosDeAutor;
+
+    /**
+     * Tiempo de vida de las colecciones de libros de autores en caché.
+     */
+    @Value("${literalura.cache.hibernate.libros-de-autor.ttl:1h}")
+    private Duration ttlLibrosDeAutor;
+
+    /**
+     * Número máximo de resultados de las consultas de libros por idioma (uno por idioma o página).
+     */
+    @Value("${literalura.cache.hibernate.libros-por-idioma.tamano-maximo:1000}")
+    private long tamanoLibrosPorIdioma;
+
+    /**
+     * Tiempo de vida de los resultados de las consultas de libros por idioma.
+     */
+    @Value("${literalura.cache.hibernate.libros-por-idioma.ttl:10m}")
+    private Duration ttlLibrosPorIdioma;
+
+    /**
+     * Número máximo de resultados de los listados de autores (uno por página).
+     */
+    @Value("${literalura.cache.hibernate.listado-autores.tamano-maximo:1000}")
+    private long tamanoListadoAutores;
+
+    /**
+     * Tiempo de vida de los resultados de los listados de autores.
+     */
+    @Value("${literalura.cache.hibernate.listado-autores.ttl:10m}")
+    private Duration ttlListadoAutores;
+
+    /**
+     * CacheManager de JCache con las regiones de Hibernate.
+     * Hibernate falla al arrancar si usa una región que no se crea aquí (missing_cache_strategy=fail),
+     * para que ninguna región quede sin límite por un error en su nombre.
+     *
+     * @param registroMetricas El registro de métricas de la aplicación.
+     * @return El CacheManager, que se cierra al detener el contexto de Spring.
+     */
+    @Bean
+    public CacheManager cacheManagerHibernate(MeterRegistry registroMetricas) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        crearRegion(cacheManager, registroMetricas, Autor.class.getName(), tamanoAutores, ttlAutores);
+        crearRegion(cacheManager, registroMetricas, Libro.class.getName(), tamanoLibros, ttlLibros);
+        crearRegion(cacheManager, registroMetricas, REGION_LIBROS_DE_AUTOR, tamanoLibrosDeAutor, ttlLibrosDeAutor);
+        crearRegion(cacheManager, registroMetricas, LibroRepository.REGION_LIBROS_POR_IDIOMA, tamanoLibrosPorIdioma, ttlLibrosPorIdioma);
+        crearRegion(cacheManager, registroMetricas, AutorRepository.REGION_LISTADO_AUTORES, tamanoListadoAutores, ttlListadoAutores);
+        // Región por defecto de la caché de consultas; ninguna consulta la usa, pero Hibernate la crea siempre
+        crearRegion(cacheManager, registroMetricas, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 100, Duration.ofMinutes(10));
+        // Marcas de tiempo de la última escritura en cada tabla; no deben expirar ni desalojarse, porque
+        // sin ellas la caché de consultas no sabría que un resultado está obsoleto
+        crearRegion(cacheManager, registroMetricas, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 0, Duration.ZERO);
+        return cacheManager;
+    }
+
+    /**
+     * Entrega el CacheManager a Hibernate en lugar de dejar que cree uno propio.
+     *
+     * @param cacheManagerHibernate El CacheManager con las regiones configuradas.
+     * @return El personalizador de las propiedades de Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerHibernate) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+    }
+
+    /**
+     * Crea una región con almacenamiento por referencia: Hibernate ya guarda copias desensambladas de las entidades.
+     *
+     * @param tamanoMaximo El número máximo de entradas, o 0 para no limitarlo.
+     * @param ttl          El tiempo de vida desde la escritura, o cero para que no expiren.
+     */
+    private static void crearRegion(CacheManager cacheManager, MeterRegistry registroMetricas, String region,
+                                    long tamanoMaximo, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setStoreByValue(false);
+        configuracion.setStatisticsEnabled(true);
+        if (tamanoMaximo > 0) {
+            configuracion.setMaximumSize(OptionalLong.of(tamanoMaximo));
+        }
+        if (!ttl.isZero()) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        JCacheMetrics.monitor(registroMetricas, cacheManager.createCache(region, configuracion));
+    }
+}
@@ -0,0 +1,67 @@
+package com.alura.literalura.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuración del cliente HTTP compartido para consumir la API de Gutendex.
+ * Esta clase crea un único HttpClient de larga duración que reutiliza conexiones (keep-alive)
+ * entre solicitudes, en lugar de crear un cliente nuevo por cada búsqueda.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Tiempo máximo de espera para establecer la conexión, en milisegundos.
+     */
+    @Value("${literalura.http.connect-timeout:5000}")
+    private long tiempoConexionMs;
+
+    /**
+     * Número de hilos del ejecutor propio del cliente HTTP.
+     */
+    @Value("${literalura.http.hilos:4}")
+    private int hilos;
+
+    /**
+     * Ejecutor dedicado a las solicitudes HTTP y a sus callbacks asíncronos.
+     * Se cierra automáticamente al detener el contexto de Spring.
+     *
+     * @return El ejecutor del cliente HTTP.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService httpExecutor() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = runnable -> {
+            Thread hilo = new Thread(runnable, "gutendex-http-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        return Executors.newFixedThreadPool(hilos, fabrica);
+    }
+
+    /**
+     * Cliente HTTP compartido con soporte HTTP/2, redirecciones y tiempo de conexión configurable.
+     *
+     * @param httpExecutor El ejecutor dedicado a las solicitudes HTTP.
+     * @return El cliente HTTP compartido.
+     */
+    @Bean
+    public HttpClient httpClient(ExecutorService httpExecutor) {
+        // El tiempo de keep-alive del pool se fija antes de crear el contexto (ver LiteraluraApplication)
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(tiempoConexionMs))
+                .executor(httpExecutor)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.alura.literalura.config;
+
+import com.alura.literalura.LiteraluraApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuración del modo web (perfil "web").
+ * Añade las cabeceras ETag a las respuestas de lectura de la API REST y define el ejecutor en el que se
+ * atienden los registros de libros, que esperan a la API de Gutendex sin ocupar los hilos de Tomcat.
+ */
+@Configuration
+@Profile(LiteraluraApplication.PERFIL_WEB)
+public class WebConfig {
+
+    /**
+     * Número máximo de registros de libros que se atienden a la vez; el resto espera en cola.
+     */
+    @Value("${literalura.web.registro.concurrencia:16}")
+    private int concurrenciaRegistro;
+
+    /**
+     * Filtro que calcula el ETag de las respuestas GET de la API a partir de su cuerpo y responde
+     * 304 Not Modified, sin cuerpo, cuando coincide con el If-None-Match del cliente.
+     *
+     * @return El registro del filtro para las rutas /api/*.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> filtroEtag() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registro = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registro.addUrlPatterns("/api/*");
+        registro.setName("filtroEtag");
+        return registro;
+    }
+
+    /**
+     * Ejecutor de los registros de libros solicitados por la API REST.
+     * Se cierra automáticamente al detener el contexto de Spring.
+     *
+     * @return El ejecutor de registros.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ejecutorRegistroWeb() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = runnable -> {
+            Thread hilo = new Thread(runnable, "registro-web-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        return Executors.newFixedThreadPool(concurrenciaRegistro, fabrica);
+    }
+}
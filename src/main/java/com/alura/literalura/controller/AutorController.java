@@ -0,0 +1,78 @@
+package com.alura.literalura.controller;
+
+import com.alura.literalura.LiteraluraApplication;
+import com.alura.literalura.dto.AutorResumen;
+import com.alura.literalura.dto.PaginaDTO;
+import com.alura.literalura.service.AutorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * API REST de autores: listado paginado y autores vivos en un año.
+ * Solo existe en el modo web.
+ */
+@RestController
+@RequestMapping("/api/autores")
+@Profile(LiteraluraApplication.PERFIL_WEB)
+public class AutorController {
+
+    @Autowired
+    private AutorService autorService;
+
+    @Value("${literalura.listado.tamano-pagina:50}")
+    private int tamanoPagina;
+
+    @Value("${literalura.web.tamano-maximo:200}")
+    private int tamanoMaximo;
+
+    @Value("${literalura.web.cache.edad-maxima:60s}")
+    private Duration edadMaxima;
+
+    /**
+     * Lista los autores registrados, ordenados por nombre, con la cantidad y los títulos de sus libros.
+     *
+     * @param pagina El número de página, desde 0.
+     * @param tamano El número máximo de autores de la página.
+     * @return La página de autores, con la URL de la siguiente.
+     */
+    @GetMapping
+    public ResponseEntity<PaginaDTO<AutorResumen>> listarAutores(@RequestParam(defaultValue = "0") int pagina,
+                                                                  @RequestParam(required = false) Integer tamano) {
+        int numero = Math.max(0, pagina);
+        return Paginacion.respuesta(autorService.listarAutores(numero, Paginacion.tamano(tamano, tamanoPagina, tamanoMaximo)),
+                "pagina", numero + 1, edadMaxima);
+    }
+
+    /**
+     * Lista los autores vivos en un año, ordenados por nombre, con la cantidad de libros de cada uno.
+     * La lista completa sale del índice en memoria, de modo que la página se recorta sin volver a consultarla.
+     *
+     * @param ano    El año a consultar.
+     * @param pagina El número de página, desde 0.
+     * @param tamano El número máximo de autores de la página.
+     * @return La página de autores, con la URL de la siguiente.
+     */
+    @GetMapping("/vivos")
+    public ResponseEntity<PaginaDTO<AutorResumen>> listarAutoresVivos(@RequestParam int ano,
+                                                                       @RequestParam(defaultValue = "0") int pagina,
+                                                                       @RequestParam(required = false) Integer tamano) {
+        int numero = Math.max(0, pagina);
+        int limite = Paginacion.tamano(tamano, tamanoPagina, tamanoMaximo);
+        List<AutorResumen> vivos = autorService.listarAutoresVivosEnAno(ano);
+        int desde = (int) Math.min((long) numero * limite, vivos.size());
+        int hasta = Math.min(desde + limite, vivos.size());
+        return Paginacion.respuesta(new SliceImpl<>(vivos.subList(desde, hasta), PageRequest.of(numero, limite), hasta < vivos.size()),
+                "pagina", numero + 1, edadMaxima);
+    }
+}
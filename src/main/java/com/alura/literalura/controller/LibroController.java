@@ -0,0 +1,146 @@
+package com.alura.literalura.controller;
+
+import com.alura.literalura.LiteraluraApplication;
+import com.alura.literalura.dto.EstadisticasIdioma;
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.dto.PaginaDTO;
+import com.alura.literalura.dto.ResultadoRegistro;
+import com.alura.literalura.dto.SolicitudRegistro;
+import com.alura.literalura.service.EstadisticasDescargas;
+import com.alura.literalura.service.LibroService;
+import com.alura.literalura.service.RegistroLibroService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * API REST de libros: listado paginado (opcionalmente por idioma), libros más descargados, estadísticas de
+ * descargas por idioma y registro de un libro por su título.
+ * Solo existe en el modo web.
+ */
+@RestController
+@RequestMapping("/api/libros")
+@Profile(LiteraluraApplication.PERFIL_WEB)
+public class LibroController {
+
+    @Autowired
+    private LibroService libroService;
+
+    @Autowired
+    private RegistroLibroService registroLibroService;
+
+    @Autowired
+    private EstadisticasDescargas estadisticasDescargas;
+
+    @Autowired
+    @Qualifier("ejecutorRegistroWeb")
+    private ExecutorService ejecutorRegistro;
+
+    @Value("${literalura.listado.tamano-pagina:50}")
+    private int tamanoPagina;
+
+    @Value("${literalura.web.tamano-maximo:200}")
+    private int tamanoMaximo;
+
+    @Value("${literalura.web.cache.edad-maxima:60s}")
+    private Duration edadMaxima;
+
+    /**
+     * Lista los libros registrados por orden de identificador, con paginación por clave.
+     *
+     * @param idioma El código del idioma para filtrar, o null para listar todos.
+     * @param desde  El identificador del último libro de la página anterior, o 0 para la primera página.
+     * @param tamano El número máximo de libros de la página.
+     * @return La página de libros, con la URL de la siguiente.
+     */
+    @GetMapping
+    public ResponseEntity<PaginaDTO<LibroResumen>> listarLibros(@RequestParam(required = false) String idioma,
+                                                                 @RequestParam(defaultValue = "0") long desde,
+                                                                 @RequestParam(required = false) Integer tamano) {
+        int limite = Paginacion.tamano(tamano, tamanoPagina, tamanoMaximo);
+        Slice<LibroResumen> pagina = idioma == null
+                ? libroService.listarLibrosDesde(desde, limite)
+                : libroService.listarLibrosPorIdiomaDesde(idioma.toLowerCase(Locale.ROOT), desde, limite);
+        List<LibroResumen> libros = pagina.getContent();
+        long ultimoId = libros.isEmpty() ? desde : libros.get(libros.size() - 1).id();
+        return Paginacion.respuesta(pagina, "desde", ultimoId, edadMaxima);
+    }
+
+    /**
+     * Lista los libros más descargados, opcionalmente de un idioma.
+     *
+     * @param idioma El código del idioma para filtrar, o null para considerar todos los libros.
+     * @param n      El número de libros a listar, acotado por literalura.web.tamano-maximo.
+     * @return Los libros, de mayor a menor número de descargas.
+     */
+    @GetMapping("/mas-descargados")
+    public ResponseEntity<List<LibroResumen>> listarMasDescargados(@RequestParam(required = false) String idioma,
+                                                                   @RequestParam(defaultValue = "10") int n) {
+        int cantidad = Paginacion.tamano(n, 10, tamanoMaximo);
+        List<LibroResumen> libros = idioma == null
+                ? estadisticasDescargas.masDescargados(cantidad)
+                : estadisticasDescargas.masDescargados(idioma.toLowerCase(Locale.ROOT), cantidad);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(edadMaxima).cachePublic())
+                .body(libros);
+    }
+
+    /**
+     * Obtiene las estadísticas de descargas de cada idioma.
+     *
+     * @return La cantidad de libros y el mínimo, el máximo y el promedio de descargas de cada idioma.
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticasIdioma>> obtenerEstadisticas() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(edadMaxima).cachePublic())
+                .body(estadisticasDescargas.estadisticasPorIdioma());
+    }
+
+    /**
+     * Busca un libro por su título en la API de Gutendex y lo registra.
+     * La búsqueda se ejecuta en el ejecutor de registros, sin ocupar un hilo de Tomcat mientras espera a la API.
+     *
+     * @param solicitud El título a registrar.
+     * @return El resultado del registro: 201 si se registró, 202 si se aceptó para guardarlo en segundo plano
+     * (escritura diferida), 409 si ya estaba registrado, 404 si la API no tiene ese título y 502 si la API
+     * o la base de datos fallaron.
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<ResultadoRegistro>> registrarLibro(@RequestBody SolicitudRegistro solicitud) {
+        if (solicitud.titulo() == null || solicitud.titulo().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El título es obligatorio");
+        }
+        String titulo = solicitud.titulo().strip();
+        return CompletableFuture.supplyAsync(() -> registroLibroService.registrar(titulo), ejecutorRegistro)
+                .thenApply(resultado -> ResponseEntity.status(estadoHttp(resultado.estado())).body(resultado));
+    }
+
+    private static HttpStatus estadoHttp(ResultadoRegistro.Estado estado) {
+        return switch (estado) {
+            case REGISTRADO -> HttpStatus.CREATED;
+            case ACEPTADO -> HttpStatus.ACCEPTED;
+            case DUPLICADO -> HttpStatus.CONFLICT;
+            case NO_ENCONTRADO -> HttpStatus.NOT_FOUND;
+            case ERROR -> HttpStatus.BAD_GATEWAY;
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.alura.literalura.controller;
+
+import com.alura.literalura.dto.PaginaDTO;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.Duration;
+
+/**
+ * Utilidades comunes de los controladores para construir respuestas paginadas.
+ */
+final class Paginacion {
+
+    private Paginacion() {
+    }
+
+    /**
+     * Acota el tamaño de página solicitado.
+     *
+     * @param solicitado El tamaño pedido por el cliente, o null si no lo indicó.
+     * @param porDefecto El tamaño que se usa si el cliente no indica ninguno.
+     * @param maximo     El tamaño máximo permitido.
+     * @return Un tamaño entre 1 y el máximo.
+     */
+    static int tamano(Integer solicitado, int porDefecto, int maximo) {
+        int tamano = solicitado != null ? solicitado : porDefecto;
+        return Math.max(1, Math.min(tamano, maximo));
+    }
+
+    /**
+     * Construye la respuesta de una página de lectura, con la URL de la siguiente y la cabecera Cache-Control.
+     * La URL siguiente es la de la petición actual con el parámetro indicado reemplazado.
+     *
+     * @param porcion    La porción de resultados.
+     * @param parametro  El parámetro de la petición que selecciona la página.
+     * @param valor      El valor del parámetro para la página siguiente.
+     * @param edadMaxima El tiempo que los clientes pueden reutilizar la respuesta sin revalidarla.
+     * @param <T>        El tipo de los elementos.
+     * @return La respuesta HTTP 200 con la página.
+     */
+    static <T> ResponseEntity<PaginaDTO<T>> respuesta(Slice<T> porcion, String parametro, Object valor, Duration edadMaxima) {
+        String siguiente = porcion.hasNext()
+                ? ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam(parametro, valor).toUriString()
+                : null;
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(edadMaxima).cachePublic())
+                .body(new PaginaDTO<>(porcion.getContent(), siguiente));
+    }
+}
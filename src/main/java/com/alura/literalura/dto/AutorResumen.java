@@ -0,0 +1,30 @@
+package com.alura.literalura.dto;
+
+/**
+ * Proyección de solo lectura de un autor para los listados.
+ * El número de libros y sus títulos se agregan en la base de datos (count y string_agg),
+ * por lo que cada autor ocupa una sola fila sin importar cuántos libros tenga.
+ *
+ * @param id               Identificador del autor.
+ * @param nombre           Nombre del autor.
+ * @param anoNacimiento    Año de nacimiento del autor.
+ * @param anoFallecimiento Año de fallecimiento del autor, o null si no se conoce.
+ * @param cantidadLibros   Número de libros registrados del autor.
+ * @param titulos          Títulos de los libros separados por comas, o null si no se solicitaron o no tiene libros.
+ */
+public record AutorResumen(Long id, String nombre, Integer anoNacimiento, Integer anoFallecimiento,
+                           Long cantidadLibros, String titulos) {
+
+    /**
+     * Crea una proyección sin los títulos de los libros, para los listados que solo muestran la cantidad.
+     *
+     * @param id               Identificador del autor.
+     * @param nombre           Nombre del autor.
+     * @param anoNacimiento    Año de nacimiento del autor.
+     * @param anoFallecimiento Año de fallecimiento del autor, o null si no se conoce.
+     * @param cantidadLibros   Número de libros registrados del autor.
+     */
+    public AutorResumen(Long id, String nombre, Integer anoNacimiento, Integer anoFallecimiento, Long cantidadLibros) {
+        this(id, nombre, anoNacimiento, anoFallecimiento, cantidadLibros, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.alura.literalura.dto;
+
+/**
+ * Estadísticas del número de descargas de los libros registrados en un idioma.
+ *
+ * @param idioma   Código del idioma.
+ * @param cantidad Número de libros registrados en el idioma.
+ * @param minimo   Menor número de descargas de un libro del idioma.
+ * @param maximo   Mayor número de descargas de un libro del idioma.
+ * @param promedio Número medio de descargas por libro.
+ */
+public record EstadisticasIdioma(String idioma, long cantidad, int minimo, int maximo, double promedio) {
+}
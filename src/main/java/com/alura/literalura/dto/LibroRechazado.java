@@ -0,0 +1,13 @@
+package com.alura.literalura.dto;
+
+/**
+ * Libro aceptado por la escritura diferida que no se pudo guardar.
+ * Se guarda como una línea JSON en el archivo de rechazados, con los datos completos del libro
+ * para poder revisarlo o volver a registrarlo.
+ *
+ * @param fecha  Instante del rechazo, en formato ISO-8601.
+ * @param motivo El mensaje de la causa del error que impidió guardarlo.
+ * @param libro  Los datos del libro recibidos de la API.
+ */
+public record LibroRechazado(String fecha, String motivo, LibroDTO libro) {
+}
@@ -0,0 +1,15 @@
+package com.alura.literalura.dto;
+
+/**
+ * Proyección de solo lectura de un libro para los listados.
+ * Se construye directamente en la consulta, con el nombre del autor obtenido mediante un JOIN,
+ * de modo que no se cargan entidades administradas ni consultas adicionales por autor.
+ *
+ * @param id              Identificador del libro, usado como clave de paginación.
+ * @param titulo          Título del libro.
+ * @param autorNombre     Nombre del autor, o null si el libro no tiene autor.
+ * @param idioma          Idioma del libro.
+ * @param numeroDescargas Número de descargas del libro.
+ */
+public record LibroResumen(Long id, String titulo, String autorNombre, String idioma, Integer numeroDescargas) {
+}
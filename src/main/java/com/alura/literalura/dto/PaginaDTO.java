@@ -0,0 +1,15 @@
+package com.alura.literalura.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados de la API REST.
+ * Sigue el mismo esquema que Gutendex: en lugar de números de página, cada respuesta indica la URL
+ * de la siguiente, de modo que el cliente no depende de si la paginación es por clave o por desplazamiento.
+ *
+ * @param elementos Los elementos de la página.
+ * @param siguiente La URL de la página siguiente, o null si es la última.
+ * @param <T>       El tipo de los elementos.
+ */
+public record PaginaDTO<T>(List<T> elementos, String siguiente) {
+}
@@ -11,6 +11,27 @@ import java.util.List;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class RespuestaLibrosDTO {
 
+    /**
+     * Número total de libros que coinciden con la consulta.
+     * Esta propiedad se mapea al campo "count" en el JSON.
+     */
+    @JsonProperty("count")
+    private int total;
+
+    /**
+     * URL de la página siguiente de resultados, o null si es la última página.
+     * Esta propiedad se mapea al campo "next" en el JSON.
+     */
+    @JsonProperty("next")
+    private String siguiente;
+
+    /**
+     * URL de la página anterior de resultados, o null si es la primera página.
+     * Esta propiedad se mapea al campo "previous" en el JSON.
+     */
+    @JsonProperty("previous")
+    private String anterior;
+
     /**
      * Lista de libros.
      * Esta propiedad se mapea al campo "results" en el JSON y contiene objetos de tipo LibroDTO.
@@ -18,6 +39,60 @@ public class RespuestaLibrosDTO {
     @JsonProperty("results")
     private List<LibroDTO> libros;
 
+    /**
+     * Obtiene el número total de libros que coinciden con la consulta.
+     *
+     * @return El número total de libros.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Establece el número total de libros que coinciden con la consulta.
+     *
+     * @param total El nuevo número total de libros.
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Obtiene la URL de la página siguiente de resultados.
+     *
+     * @return La URL de la página siguiente, o null si es la última página.
+     */
+    public String getSiguiente() {
+        return siguiente;
+    }
+
+    /**
+     * Establece la URL de la página siguiente de resultados.
+     *
+     * @param siguiente La nueva URL de la página siguiente.
+     */
+    public void setSiguiente(String siguiente) {
+        this.siguiente = siguiente;
+    }
+
+    /**
+     * Obtiene la URL de la página anterior de resultados.
+     *
+     * @return La URL de la página anterior, o null si es la primera página.
+     */
+    public String getAnterior() {
+        return anterior;
+    }
+
+    /**
+     * Establece la URL de la página anterior de resultados.
+     *
+     * @param anterior La nueva URL de la página anterior.
+     */
+    public void setAnterior(String anterior) {
+        this.anterior = anterior;
+    }
+
     /**
      * Obtiene la lista de libros.
      *
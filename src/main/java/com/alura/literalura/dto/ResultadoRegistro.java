@@ -0,0 +1,50 @@
+package com.alura.literalura.dto;
+
+/**
+ * Resultado de buscar y registrar un libro por su título.
+ *
+ * @param titulo  El título buscado.
+ * @param estado  Cómo terminó la búsqueda.
+ * @param libro   Los datos del libro en la API, si se registró o se aceptó; null en los demás casos.
+ * @param detalle El mensaje del error, si la búsqueda falló; null en los demás casos.
+ */
+public record ResultadoRegistro(String titulo, Estado estado, LibroDTO libro, String detalle) {
+
+    /**
+     * Posibles resultados de una búsqueda.
+     */
+    public enum Estado {
+        /**
+         * El libro se encontró en la API y se registró.
+         */
+        REGISTRADO,
+        /**
+         * El libro se encontró en la API y se aceptó para guardarlo en segundo plano (escritura diferida).
+         * Queda pendiente: si no se puede guardar, aparece en el archivo de libros rechazados.
+         */
+        ACEPTADO,
+        /**
+         * El libro ya estaba registrado.
+         */
+        DUPLICADO,
+        /**
+         * La API no tiene un libro con exactamente ese título.
+         */
+        NO_ENCONTRADO,
+        /**
+         * La búsqueda falló por un error de la API o de la base de datos.
+         */
+        ERROR
+    }
+
+    /**
+     * Crea un resultado sin datos del libro ni mensaje de error.
+     *
+     * @param titulo El título buscado.
+     * @param estado Cómo terminó la búsqueda.
+     * @return El resultado.
+     */
+    public static ResultadoRegistro de(String titulo, Estado estado) {
+        return new ResultadoRegistro(titulo, estado, null, null);
+    }
+}
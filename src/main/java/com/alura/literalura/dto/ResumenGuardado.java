@@ -0,0 +1,11 @@
+package com.alura.literalura.dto;
+
+/**
+ * Resumen del guardado de un conjunto de libros con inserción o actualización por identificador de Gutendex.
+ *
+ * @param insertados   Número de libros nuevos.
+ * @param actualizados Número de libros ya registrados cuyos datos cambiaron.
+ * @param omitidos     Número de libros sin cambios, repetidos o cuyo título ya pertenece a otro libro.
+ */
+public record ResumenGuardado(int insertados, int actualizados, int omitidos) {
+}
@@ -0,0 +1,16 @@
+package com.alura.literalura.dto;
+
+import java.time.Duration;
+
+/**
+ * Resumen del resultado de una importación masiva del catálogo.
+ *
+ * @param paginas      Número de páginas procesadas.
+ * @param registrados  Número de libros nuevos registrados en la base de datos.
+ * @param actualizados Número de libros ya registrados cuyos datos cambiaron en la API.
+ * @param omitidos     Número de libros omitidos por estar ya registrados sin cambios o por no tener título.
+ * @param duracion     Tiempo total de la importación.
+ * @param completa     true si se recorrieron todas las páginas, false si la importación se detuvo antes.
+ */
+public record ResumenImportacion(int paginas, int registrados, int actualizados, int omitidos, Duration duracion, boolean completa) {
+}
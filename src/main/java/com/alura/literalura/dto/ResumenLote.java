@@ -0,0 +1,27 @@
+package com.alura.literalura.dto;
+
+import java.time.Duration;
+
+/**
+ * Resumen del registro en lote de una lista de títulos.
+ *
+ * @param total         Número de títulos procesados.
+ * @param registrados   Número de libros registrados.
+ * @param aceptados     Número de libros aceptados para guardarlos en segundo plano, aún pendientes.
+ * @param duplicados    Número de títulos que ya estaban registrados.
+ * @param noEncontrados Número de títulos sin una coincidencia exacta en la API.
+ * @param errores       Número de títulos cuya búsqueda falló.
+ * @param duracion      Tiempo total del lote.
+ */
+public record ResumenLote(int total, int registrados, int aceptados, int duplicados, int noEncontrados, int errores, Duration duracion) {
+
+    /**
+     * Calcula el rendimiento del lote.
+     *
+     * @return El número de títulos procesados por segundo.
+     */
+    public double titulosPorSegundo() {
+        long milisegundos = Math.max(1, duracion.toMillis());
+        return total * 1000.0 / milisegundos;
+    }
+}
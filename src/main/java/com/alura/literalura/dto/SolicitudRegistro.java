@@ -0,0 +1,9 @@
+package com.alura.literalura.dto;
+
+/**
+ * Cuerpo de la petición para buscar y registrar un libro por su título.
+ *
+ * @param titulo El título del libro.
+ */
+public record SolicitudRegistro(String titulo) {
+}
@@ -1,22 +1,32 @@
 package com.alura.literalura.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 
 /**
  * Clase que representa un autor en la base de datos.
  * Esta clase se mapea a la tabla "autores" y contiene información sobre los autores, incluyendo sus libros asociados.
+ * Los autores se guardan en la caché de segundo nivel de Hibernate (ver CacheSegundoNivelConfig).
  */
 @Entity
-@Table(name = "autores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "autores", indexes = @Index(name = "idx_autores_nombre", columnList = "nombre"))
 public class Autor {
 
     /**
      * Identificador único del autor.
-     * Este campo se genera automáticamente utilizando la estrategia IDENTITY.
+     * Este campo se genera a partir de la secuencia "autores_seq" con un optimizador pooled:
+     * cada llamada a la secuencia reserva un bloque de identificadores, lo que permite a Hibernate
+     * agrupar las inserciones en lotes JDBC (la estrategia IDENTITY lo impide). El tamaño del bloque es
+     * Libro.BLOQUE_IDS, el mismo que el de libros_seq.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autores_seq")
+    @SequenceGenerator(name = "autores_seq", sequenceName = "autores_seq", allocationSize = Libro.BLOQUE_IDS)
     private Long id;
 
     /**
@@ -40,7 +50,9 @@ public class Autor {
      * Esta relación es bidireccional y se mapea a la entidad Libro mediante el campo "autor".
      * La cascada ALL indica que todas las operaciones (persist, merge, remove, etc.) se propagarán a los libros asociados.
      * orphanRemoval = true indica que si un libro se elimina de la lista, también se eliminará de la base de datos.
+     * Los identificadores de la colección se guardan en la caché de segundo nivel.
      */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "autor", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Libro> libros;
 
@@ -1,28 +1,71 @@
 package com.alura.literalura.model;
 
+import com.alura.literalura.util.Normalizador;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
 
 /**
  * Clase que representa un libro en la base de datos.
  * Esta clase se mapea a la tabla "libros" y contiene información sobre los libros, incluyendo su autor asociado.
+ * Los libros se guardan en la caché de segundo nivel de Hibernate (ver CacheSegundoNivelConfig).
  */
 @Entity
-@Table(name = "libros")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "libros",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_libros_titulo_normalizado", columnNames = "titulo_normalizado"),
+                @UniqueConstraint(name = "uk_libros_gutendex_id", columnNames = "gutendex_id")
+        },
+        indexes = {
+                @Index(name = "idx_libros_idioma_id", columnList = "idioma, id"),
+                @Index(name = "idx_libros_descargas_actualizadas", columnList = "descargas_actualizadas"),
+                @Index(name = "idx_libros_descargas_id", columnList = "numero_descargas, id"),
+                @Index(name = "idx_libros_idioma_descargas_id", columnList = "idioma, numero_descargas, id")
+        })
 public class Libro {
 
+    /**
+     * Número de identificadores que reserva cada llamada a libros_seq y a autores_seq (su INCREMENT BY).
+     * Autor usa el mismo valor, y la inserción con actualización de LibroService reserva los bloques de la misma forma.
+     */
+    public static final int BLOQUE_IDS = 50;
+
     /**
      * Identificador único del libro.
-     * Este campo se genera automáticamente utilizando la estrategia IDENTITY.
+     * Este campo se genera a partir de la secuencia "libros_seq" con un optimizador pooled:
+     * cada llamada a la secuencia reserva un bloque de identificadores, lo que permite a Hibernate
+     * agrupar las inserciones en lotes JDBC (la estrategia IDENTITY lo impide).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "libros_seq")
+    @SequenceGenerator(name = "libros_seq", sequenceName = "libros_seq", allocationSize = BLOQUE_IDS)
     private Long id;
 
+    /**
+     * Identificador del libro en Gutendex.
+     * Es la clave natural del libro: tiene un índice único y las inserciones masivas lo usan para
+     * actualizar los libros ya registrados en lugar de duplicarlos. Es nulo en los libros registrados
+     * antes de que existiera la columna.
+     */
+    @Column(name = "gutendex_id")
+    private Integer gutendexId;
+
     /**
      * Título del libro.
      */
     private String titulo;
 
+    /**
+     * Título normalizado (sin distinguir mayúsculas ni acentos), calculado a partir del título.
+     * Tiene un índice único: las búsquedas por título lo usan y la base de datos rechaza los libros duplicados.
+     */
+    @Column(name = "titulo_normalizado")
+    private String tituloNormalizado;
+
     /**
      * Idioma en el que está escrito el libro.
      */
@@ -33,6 +76,14 @@ public class Libro {
      */
     private int numeroDescargas;
 
+    /**
+     * Momento en que el número de descargas se comprobó por última vez contra la API.
+     * La sincronización periódica (ver SincronizacionDescargas) solo revisa los libros cuyo valor es
+     * anterior al umbral de antigüedad, o nulo si nunca se comprobó.
+     */
+    @Column(name = "descargas_actualizadas")
+    private Instant descargasActualizadas;
+
     /**
      * Autor del libro.
      * Esta relación es bidireccional y se mapea a la entidad Autor mediante el campo "autor_id".
@@ -61,6 +112,24 @@ public class Libro {
         this.id = id;
     }
 
+    /**
+     * Obtiene el identificador del libro en Gutendex.
+     *
+     * @return El identificador del libro en Gutendex, o null si no se conoce.
+     */
+    public Integer getGutendexId() {
+        return gutendexId;
+    }
+
+    /**
+     * Establece el identificador del libro en Gutendex.
+     *
+     * @param gutendexId El nuevo identificador del libro en Gutendex.
+     */
+    public void setGutendexId(Integer gutendexId) {
+        this.gutendexId = gutendexId;
+    }
+
     /**
      * Obtiene el título del libro.
      *
@@ -77,6 +146,26 @@ public class Libro {
      */
     public void setTitulo(String titulo) {
         this.titulo = titulo;
+        this.tituloNormalizado = Normalizador.normalizarTitulo(titulo);
+    }
+
+    /**
+     * Obtiene el título normalizado del libro.
+     *
+     * @return El título normalizado del libro.
+     */
+    public String getTituloNormalizado() {
+        return tituloNormalizado;
+    }
+
+    /**
+     * Recalcula el título normalizado antes de insertar o actualizar el libro,
+     * para que nunca quede desincronizado del título.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizarTitulo() {
+        this.tituloNormalizado = Normalizador.normalizarTitulo(titulo);
     }
 
     /**
@@ -115,6 +204,24 @@ public class Libro {
         this.numeroDescargas = numeroDescargas;
     }
 
+    /**
+     * Obtiene el momento en que el número de descargas se comprobó por última vez.
+     *
+     * @return El momento de la última comprobación, o null si nunca se comprobó.
+     */
+    public Instant getDescargasActualizadas() {
+        return descargasActualizadas;
+    }
+
+    /**
+     * Establece el momento en que el número de descargas se comprobó por última vez.
+     *
+     * @param descargasActualizadas El momento de la última comprobación.
+     */
+    public void setDescargasActualizadas(Instant descargasActualizadas) {
+        this.descargasActualizadas = descargasActualizadas;
+    }
+
     /**
      * Obtiene el autor del libro.
      *
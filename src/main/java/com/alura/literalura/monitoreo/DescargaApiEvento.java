@@ -0,0 +1,48 @@
+package com.alura.literalura.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Obtención de una página de resultados de la API, hasta disponer del flujo de la respuesta
+ * (cabeceras recibidas o copia en la caché). La lectura del cuerpo se mide en DeserializacionEvento.
+ */
+@Name("com.alura.literalura.DescargaApi")
+@Label("Descarga de la API")
+@Description("Solicitud de una página de resultados hasta recibir las cabeceras")
+@Category({"Literalura", "Registro de libros"})
+@StackTrace(false)
+public class DescargaApiEvento extends Event {
+
+    @Label("Título")
+    private String titulo;
+
+    @Label("URL")
+    private String url;
+
+    @Label("Página")
+    private int pagina;
+
+    @Label("Correcta")
+    private boolean correcta;
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public void setPagina(int pagina) {
+        this.pagina = pagina;
+    }
+
+    public void setCorrecta(boolean correcta) {
+        this.correcta = correcta;
+    }
+}
@@ -0,0 +1,51 @@
+package com.alura.literalura.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Lectura y deserialización del cuerpo de una página de resultados. Como el JSON se deserializa a medida
+ * que llega, la duración incluye la espera de los datos de la red.
+ */
+@Name("com.alura.literalura.Deserializacion")
+@Label("Deserialización de la respuesta")
+@Description("Lectura del cuerpo de una página de resultados y conversión a DTO")
+@Category({"Literalura", "Registro de libros"})
+@StackTrace(false)
+public class DeserializacionEvento extends Event {
+
+    @Label("Título")
+    private String titulo;
+
+    @Label("Página")
+    private int pagina;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Resultados")
+    @Description("Libros en la página, o -1 si no se pudo deserializar")
+    private int resultados;
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public void setPagina(int pagina) {
+        this.pagina = pagina;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setResultados(int resultados) {
+        this.resultados = resultados;
+    }
+}
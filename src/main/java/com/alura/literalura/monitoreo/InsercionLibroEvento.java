@@ -0,0 +1,34 @@
+package com.alura.literalura.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Inserción del libro en la base de datos, hasta la confirmación de la transacción.
+ */
+@Name("com.alura.literalura.InsercionLibro")
+@Label("Inserción del libro")
+@Description("Inserción y confirmación del libro encontrado")
+@Category({"Literalura", "Registro de libros"})
+@StackTrace(false)
+public class InsercionLibroEvento extends Event {
+
+    @Label("Título")
+    private String titulo;
+
+    @Label("Resultado")
+    @Description("REGISTRADO, DUPLICADO o ERROR")
+    private String resultado;
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public void setResultado(String resultado) {
+        this.resultado = resultado;
+    }
+}
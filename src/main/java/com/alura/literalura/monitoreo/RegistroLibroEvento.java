@@ -0,0 +1,35 @@
+package com.alura.literalura.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Registro completo de un título, desde la comprobación en el catálogo local hasta la inserción.
+ * Engloba los eventos de cada etapa emitidos para el mismo título.
+ */
+@Name("com.alura.literalura.RegistroLibro")
+@Label("Registro de libro")
+@Description("Búsqueda y registro de un título")
+@Category({"Literalura", "Registro de libros"})
+@StackTrace(false)
+public class RegistroLibroEvento extends Event {
+
+    @Label("Título")
+    private String titulo;
+
+    @Label("Estado")
+    @Description("REGISTRADO, DUPLICADO, NO_ENCONTRADO o ERROR")
+    private String estado;
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+}
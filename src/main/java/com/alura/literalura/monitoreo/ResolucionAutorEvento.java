@@ -0,0 +1,50 @@
+package com.alura.literalura.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Obtención o creación del autor de un libro, incluida la espera por el cerrojo de su nombre.
+ */
+@Name("com.alura.literalura.ResolucionAutor")
+@Label("Resolución del autor")
+@Description("Búsqueda o creación del autor del libro bajo el cerrojo de su nombre")
+@Category({"Literalura", "Registro de libros"})
+@StackTrace(false)
+public class ResolucionAutorEvento extends Event {
+
+    @Label("Título")
+    private String titulo;
+
+    @Label("Autor")
+    private String autor;
+
+    @Label("Creado")
+    @Description("true si el autor no existía y se registró")
+    private boolean creado;
+
+    @Label("Espera del cerrojo")
+    @Timespan(Timespan.NANOSECONDS)
+    private long esperaCerrojo;
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public void setAutor(String autor) {
+        this.autor = autor;
+    }
+
+    public void setCreado(boolean creado) {
+        this.creado = creado;
+    }
+
+    public void setEsperaCerrojo(long esperaCerrojo) {
+        this.esperaCerrojo = esperaCerrojo;
+    }
+}
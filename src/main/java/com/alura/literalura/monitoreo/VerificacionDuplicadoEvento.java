@@ -0,0 +1,33 @@
+package com.alura.literalura.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Consulta del catálogo local para saber si el título ya está registrado.
+ */
+@Name("com.alura.literalura.VerificacionDuplicado")
+@Label("Comprobación de duplicado")
+@Description("Búsqueda del título normalizado en el catálogo local")
+@Category({"Literalura", "Registro de libros"})
+@StackTrace(false)
+public class VerificacionDuplicadoEvento extends Event {
+
+    @Label("Título")
+    private String titulo;
+
+    @Label("Duplicado")
+    private boolean duplicado;
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public void setDuplicado(boolean duplicado) {
+        this.duplicado = duplicado;
+    }
+}
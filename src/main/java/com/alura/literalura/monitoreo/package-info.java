@@ -0,0 +1,15 @@
+/**
+ * Eventos de Java Flight Recorder que trazan cada etapa del registro de un libro: la búsqueda completa,
+ * la descarga y la deserialización de cada página de la API, la comprobación de duplicados, la resolución
+ * del autor y la inserción del libro.
+ * <p>
+ * Los eventos están habilitados por defecto y solo se generan mientras hay una grabación activa, de modo
+ * que pueden activarse en producción sin reiniciar la aplicación:
+ * <pre>
+ * jcmd &lt;pid&gt; JFR.start name=literalura duration=5m filename=literalura.jfr
+ * jfr print --categories Literalura literalura.jfr
+ * </pre>
+ * Sin grabación, crear el evento y comprobar shouldCommit no tiene coste apreciable; los campos solo se
+ * rellenan cuando el evento se va a registrar.
+ */
+package com.alura.literalura.monitoreo;
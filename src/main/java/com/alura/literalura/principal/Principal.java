@@ -1,30 +1,41 @@
 package com.alura.literalura.principal;
 
-import com.alura.literalura.dto.AutorDTO;
-import com.alura.literalura.dto.LibroDTO;
-import com.alura.literalura.dto.RespuestaLibrosDTO;
-import com.alura.literalura.model.Autor;
-import com.alura.literalura.model.Libro;
+import com.alura.literalura.LiteraluraApplication;
+import com.alura.literalura.dto.AutorResumen;
+import com.alura.literalura.dto.EstadisticasIdioma;
+import com.alura.literalura.dto.LibroRechazado;
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.dto.ResultadoRegistro;
+import com.alura.literalura.dto.ResumenImportacion;
+import com.alura.literalura.dto.ResumenLote;
 import com.alura.literalura.service.AutorService;
-import com.alura.literalura.service.ConsumoAPI;
-import com.alura.literalura.service.ConvierteDatos;
+import com.alura.literalura.service.EscrituraDiferida;
+import com.alura.literalura.service.EstadisticasDescargas;
+import com.alura.literalura.service.ImportadorCatalogo;
 import com.alura.literalura.service.LibroService;
+import com.alura.literalura.service.RegistroLibroService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 /**
  * Clase principal que maneja el menú de interacción con el usuario.
  * Esta clase proporciona opciones para buscar libros, listar libros registrados, listar autores registrados,
- * listar autores vivos en un año específico y listar libros por idioma.
+ * listar autores vivos en un año específico, listar libros por idioma, importar el catálogo, registrar títulos en lote,
+ * listar los libros más descargados, mostrar estadísticas de descargas por idioma y ver los libros que la
+ * escritura diferida no pudo guardar.
  */
 @Component
+@Profile("!" + LiteraluraApplication.PERFIL_WEB)
 public class Principal {
 
     @Autowired
@@ -34,18 +45,34 @@ public class Principal {
     private AutorService autorService;
 
     @Autowired
-    private ConsumoAPI consumoAPI;
+    private ImportadorCatalogo importadorCatalogo;
 
     @Autowired
-    private ConvierteDatos convierteDatos;
+    private RegistroLibroService registroLibroService;
 
-    private static final String BASE_URL = "https://gutendex.com/books/";
+    @Autowired
+    private EstadisticasDescargas estadisticasDescargas;
+
+    @Autowired
+    private EscrituraDiferida escrituraDiferida;
+
+    @Value("${literalura.listado.tamano-pagina:50}")
+    private int tamanoPagina;
+
+    private final VistaConsola vista = new VistaConsola(System.out);
+
+    /**
+     * Número de libros rechazados que ya se avisaron al usuario; al empezar se avisan también los que
+     * quedaron en el archivo de rechazados en ejecuciones anteriores.
+     */
+    private long rechazadosAvisados;
 
     public void mostrarMenu() {
         Scanner scanner = new Scanner(System.in);
         int opcion = -1;
 
         do {
+            avisarNuevosRechazados();
             System.out.println("""
                     **************************************
                     Bienvenidos a LITERALURA
@@ -55,7 +82,12 @@ public class Principal {
                     3. Listar autores registrados
                     4. Listar autores vivos en un año específico
                     5. Listar libros por idioma
-                    6. Salir""");
+                    6. Importar catálogo completo de Gutendex
+                    7. Registrar libros desde un archivo de títulos
+                    8. Top 10 libros más descargados
+                    9. Estadísticas de descargas por idioma
+                    10. Ver libros rechazados al guardar
+                    0. Salir""");
 
             opcion = leerEntero(scanner, "Seleccione una opción: ");
 
@@ -84,6 +116,25 @@ public class Principal {
                     String idioma = scanner.nextLine();
                     listarLibrosPorIdioma(idioma);
                     break;
+                case 6:
+                    importarCatalogo();
+                    break;
+                case 7:
+                    System.out.print("Ingrese la ruta del archivo (un título por línea): ");
+                    String ruta = scanner.nextLine();
+                    registrarLibrosDesdeArchivo(ruta);
+                    break;
+                case 8:
+                    System.out.print("Ingrese el idioma (vacío para todos): ");
+                    String idiomaTop = scanner.nextLine().trim();
+                    listarMasDescargados(idiomaTop);
+                    break;
+                case 9:
+                    listarEstadisticasPorIdioma();
+                    break;
+                case 10:
+                    listarRechazados();
+                    break;
                 case 0:
                     System.out.println("Saliendo...");
                     break;
@@ -112,114 +163,138 @@ public class Principal {
     }
 
     private void buscarLibroPorTitulo(String titulo) {
-        try {
-            String encodedTitulo = URLEncoder.encode(titulo, StandardCharsets.UTF_8);
-            String json = consumoAPI.obtenerDatos(BASE_URL + "?search=" + encodedTitulo);
-            RespuestaLibrosDTO respuestaLibrosDTO = convierteDatos.obtenerDatos(json, RespuestaLibrosDTO.class);
-            List<LibroDTO> librosDTO = respuestaLibrosDTO.getLibros();
-            if (librosDTO.isEmpty()) {
-                System.out.println("Libro no encontrado en la API");
-            } else {
-                boolean libroRegistrado = false;
-                for (LibroDTO libroDTO : librosDTO) {
-                    if (libroDTO.getTitulo().equalsIgnoreCase(titulo)) {
-                        Optional<Libro> libroExistente = libroService.obtenerLibroPorTitulo(titulo);
-                        if (libroExistente.isPresent()) {
-                            System.out.println("Detalle: Clave (titulo)=(" + titulo + ") ya existe");
-                            System.out.println("No se puede registrar el mismo libro más de una vez");
-                            libroRegistrado = true;
-                            break;
-                        } else {
-                            Libro libro = new Libro();
-                            libro.setTitulo(libroDTO.getTitulo());
-                            libro.setIdioma(libroDTO.getIdiomas().get(0));
-                            libro.setNumeroDescargas(libroDTO.getNumeroDescargas());
-
-                            AutorDTO primerAutorDTO = libroDTO.getAutores().get(0);
-                            Autor autor = autorService.obtenerAutorPorNombre(primerAutorDTO.getNombre())
-                                    .orElseGet(() -> {
-                                        Autor nuevoAutor = new Autor();
-                                        nuevoAutor.setNombre(primerAutorDTO.getNombre());
-                                        nuevoAutor.setAnoNacimiento(primerAutorDTO.getAnoNacimiento());
-                                        nuevoAutor.setAnoFallecimiento(primerAutorDTO.getAnoFallecimiento());
-                                        return autorService.crearAutor(nuevoAutor);
-                                    });
-
-                            libro.setAutor(autor);
-                            libroService.crearLibro(libro);
-                            System.out.println("Libro registrado: " + libro.getTitulo());
-                            mostrarDetallesLibro(libroDTO);
-                            libroRegistrado = true;
-                            break;
-                        }
-                    }
-                }
-                if (!libroRegistrado) {
-                    System.out.println("No se encontró un libro exactamente con el título '" + titulo + "' en la API");
-                }
+        ResultadoRegistro resultado = registroLibroService.registrar(titulo);
+        switch (resultado.estado()) {
+            case REGISTRADO -> {
+                System.out.println("Libro registrado: " + resultado.libro().getTitulo());
+                vista.mostrarLibro(resultado.libro());
+            }
+            case ACEPTADO -> {
+                System.out.println("Libro aceptado (se guardará en segundo plano): " + resultado.libro().getTitulo());
+                vista.mostrarLibro(resultado.libro());
+            }
+            case DUPLICADO -> {
+                System.out.println("Detalle: Clave (titulo)=(" + titulo + ") ya existe");
+                System.out.println("No se puede registrar el mismo libro más de una vez");
             }
-        } catch (Exception e) {
-            System.out.println("Error al obtener datos de la API: " + e.getMessage());
+            case NO_ENCONTRADO -> System.out.println("No se encontró un libro exactamente con el título '" + titulo + "' en la API");
+            case ERROR -> System.out.println("Error al obtener datos de la API: " + resultado.detalle());
+        }
+    }
+
+    private void registrarLibrosDesdeArchivo(String ruta) {
+        Path archivo = Paths.get(ruta);
+        if (!Files.isReadable(archivo)) {
+            System.out.println("No se puede leer el archivo: " + ruta);
+            return;
+        }
+        System.out.println("Registrando títulos, esto puede tardar varios minutos...");
+        ResumenLote resumen = registroLibroService.registrarLote(archivo);
+        System.out.println("------REGISTRO EN LOTE--------");
+        System.out.println("Títulos procesados: " + resumen.total());
+        System.out.println("Libros registrados: " + resumen.registrados());
+        System.out.println("Libros aceptados (pendientes de guardar): " + resumen.aceptados());
+        System.out.println("Libros ya registrados: " + resumen.duplicados());
+        System.out.println("Títulos no encontrados: " + resumen.noEncontrados());
+        System.out.println("Errores: " + resumen.errores());
+        System.out.println("Duración: " + resumen.duracion().toMillis() + " ms");
+        System.out.printf("Rendimiento: %.1f títulos/s%n", resumen.titulosPorSegundo());
+    }
+
+    private void importarCatalogo() {
+        if (importadorCatalogo.hayImportacionPendiente()) {
+            System.out.println("Se reanudará la importación anterior desde el último punto de control.");
+        }
+        System.out.println("Importando catálogo, esto puede tardar varios minutos...");
+        ResumenImportacion resumen = importadorCatalogo.importar();
+        System.out.println("------IMPORTACIÓN--------");
+        System.out.println("Páginas procesadas: " + resumen.paginas());
+        System.out.println("Libros registrados: " + resumen.registrados());
+        System.out.println("Libros actualizados: " + resumen.actualizados());
+        System.out.println("Libros omitidos: " + resumen.omitidos());
+        System.out.println("Duración: " + resumen.duracion().toSeconds() + " s");
+        if (!resumen.completa()) {
+            System.out.println("La importación no terminó; vuelva a ejecutarla para reanudarla.");
         }
     }
 
     private void listarLibrosRegistrados() {
-        libroService.listarLibros().forEach(libro -> {
-            System.out.println("------LIBRO--------");
-            System.out.println("Título: " + libro.getTitulo());
-            System.out.println("Autor: " + (libro.getAutor() != null ? libro.getAutor().getNombre() : "Desconocido"));
-            System.out.println("Idioma: " + libro.getIdioma());
-            System.out.println("Número de descargas: " + libro.getNumeroDescargas());
-        });
+        // Se imprime página a página: la primera fila aparece sin esperar al resto de la tabla
+        long ultimoId = 0;
+        Slice<LibroResumen> pagina;
+        do {
+            pagina = libroService.listarLibrosDesde(ultimoId, tamanoPagina);
+            for (LibroResumen libro : pagina) {
+                vista.mostrarLibro(libro);
+                ultimoId = libro.id();
+            }
+        } while (pagina.hasNext());
     }
 
     private void listarAutoresRegistrados() {
-        autorService.listarAutores().forEach(autor -> {
-            System.out.println("-------AUTOR-------");
-            System.out.println("Autor: " + autor.getNombre());
-            System.out.println("Fecha de nacimiento: " + autor.getAnoNacimiento());
-            System.out.println("Fecha de fallecimiento: " + (autor.getAnoFallecimiento() != null ? autor.getAnoFallecimiento() : "Desconocido"));
-            String libros = autor.getLibros().stream()
-                    .map(Libro::getTitulo)
-                    .collect(Collectors.joining(", "));
-            System.out.println("Libros: [ " + libros + " ]");
-        });
+        autorService.listarAutores().forEach(vista::mostrarAutorConTitulos);
     }
 
     private void listarAutoresVivosEnAno(int ano) {
-        List<Autor> autoresVivos = autorService.listarAutoresVivosEnAno(ano);
+        List<AutorResumen> autoresVivos = autorService.listarAutoresVivosEnAno(ano);
         if (autoresVivos.isEmpty()) {
             System.out.println("No se encontraron autores vivos en el año " + ano);
         } else {
-            autoresVivos.forEach(autor -> {
-                System.out.println("-------AUTOR-------");
-                System.out.println("Autor: " + autor.getNombre());
-                System.out.println("Fecha de nacimiento: " + autor.getAnoNacimiento());
-                System.out.println("Fecha de fallecimiento: " + (autor.getAnoFallecimiento() != null ? autor.getAnoFallecimiento() : "Desconocido"));
-                System.out.println("Libros: " + autor.getLibros().size());
-            });
+            autoresVivos.forEach(vista::mostrarAutorConCantidad);
         }
     }
 
     private void listarLibrosPorIdioma(String idioma) {
         if ("es".equalsIgnoreCase(idioma) || "en".equalsIgnoreCase(idioma) || "fr".equalsIgnoreCase(idioma) || "pt".equalsIgnoreCase(idioma)) {
-            libroService.listarLibrosPorIdioma(idioma).forEach(libro -> {
-                System.out.println("------LIBRO--------");
-                System.out.println("Título: " + libro.getTitulo());
-                System.out.println("Autor: " + (libro.getAutor() != null ? libro.getAutor().getNombre() : "Desconocido"));
-                System.out.println("Idioma: " + libro.getIdioma());
-                System.out.println("Número de descargas: " + libro.getNumeroDescargas());
-            });
+            libroService.listarLibrosPorIdioma(idioma).forEach(vista::mostrarLibro);
         } else {
             System.out.println("Idioma no válido. Intente de nuevo.");
         }
     }
 
-    private void mostrarDetallesLibro(LibroDTO libroDTO) {
-        System.out.println("------LIBRO--------");
-        System.out.println("Título: " + libroDTO.getTitulo());
-        System.out.println("Autor: " + (libroDTO.getAutores().isEmpty() ? "Desconocido" : libroDTO.getAutores().get(0).getNombre()));
-        System.out.println("Idioma: " + libroDTO.getIdiomas().get(0));
-        System.out.println("Número de descargas: " + libroDTO.getNumeroDescargas());
+    private void listarMasDescargados(String idioma) {
+        List<LibroResumen> libros = idioma.isEmpty()
+                ? estadisticasDescargas.masDescargados(10)
+                : estadisticasDescargas.masDescargados(idioma.toLowerCase(Locale.ROOT), 10);
+        if (libros.isEmpty()) {
+            System.out.println("No hay libros registrados" + (idioma.isEmpty() ? "" : " en el idioma " + idioma));
+        } else {
+            libros.forEach(vista::mostrarLibro);
+        }
+    }
+
+    private void listarEstadisticasPorIdioma() {
+        List<EstadisticasIdioma> estadisticas = estadisticasDescargas.estadisticasPorIdioma();
+        if (estadisticas.isEmpty()) {
+            System.out.println("No hay libros registrados");
+        } else {
+            estadisticas.forEach(vista::mostrarEstadisticas);
+        }
+    }
+
+    private void listarRechazados() {
+        List<LibroRechazado> rechazados = escrituraDiferida.listarRechazados();
+        if (rechazados.isEmpty()) {
+            System.out.println("No hay libros rechazados");
+            return;
+        }
+        for (LibroRechazado rechazado : rechazados) {
+            System.out.println("Rechazado el " + rechazado.fecha() + ": " + rechazado.motivo());
+            vista.mostrarLibro(rechazado.libro());
+        }
+        rechazadosAvisados = escrituraDiferida.contarRechazados();
+    }
+
+    /**
+     * Avisa si la escritura diferida rechazó libros desde el último aviso, ya que esos libros se dieron por
+     * aceptados y el usuario no vería el fallo de otro modo.
+     */
+    private void avisarNuevosRechazados() {
+        long rechazados = escrituraDiferida.contarRechazados();
+        if (rechazados > rechazadosAvisados) {
+            System.out.println("Atención: " + (rechazados - rechazadosAvisados)
+                    + " libro(s) aceptado(s) no se pudieron guardar. Use la opción 10 para verlos.");
+            rechazadosAvisados = rechazados;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.alura.literalura.principal;
+
+import com.alura.literalura.dto.AutorResumen;
+import com.alura.literalura.dto.EstadisticasIdioma;
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.dto.LibroResumen;
+
+import java.io.PrintStream;
+
+/**
+ * Formatea los libros y autores que se muestran en la consola.
+ * Cada ficha se compone completa en memoria y se escribe con una sola llamada al flujo de salida,
+ * en lugar de una llamada por línea, para que los listados largos no se dominen por la sincronización
+ * del flujo.
+ */
+public class VistaConsola {
+
+    private static final String SALTO = System.lineSeparator();
+
+    private final PrintStream salida;
+
+    /**
+     * @param salida El flujo donde se escriben las fichas.
+     */
+    public VistaConsola(PrintStream salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Muestra la ficha de un libro registrado.
+     *
+     * @param libro La proyección del libro.
+     */
+    public void mostrarLibro(LibroResumen libro) {
+        salida.print(fichaLibro(libro.titulo(), libro.autorNombre(), libro.idioma(), libro.numeroDescargas()));
+    }
+
+    /**
+     * Muestra la ficha de un libro recibido de la API.
+     *
+     * @param libroDTO El libro recibido de la API.
+     */
+    public void mostrarLibro(LibroDTO libroDTO) {
+        String autor = libroDTO.getAutores().isEmpty() ? null : libroDTO.getAutores().get(0).getNombre();
+        salida.print(fichaLibro(libroDTO.getTitulo(), autor, libroDTO.getIdiomas().get(0), libroDTO.getNumeroDescargas()));
+    }
+
+    /**
+     * Muestra la ficha de un autor con los títulos de sus libros.
+     *
+     * @param autor La proyección del autor, con los títulos agregados.
+     */
+    public void mostrarAutorConTitulos(AutorResumen autor) {
+        salida.print(fichaAutor(autor, "[ " + (autor.titulos() != null ? autor.titulos() : "") + " ]"));
+    }
+
+    /**
+     * Muestra la ficha de un autor con la cantidad de libros registrados.
+     *
+     * @param autor La proyección del autor, con la cantidad de libros.
+     */
+    public void mostrarAutorConCantidad(AutorResumen autor) {
+        salida.print(fichaAutor(autor, String.valueOf(autor.cantidadLibros())));
+    }
+
+    /**
+     * Muestra las estadísticas de descargas de un idioma.
+     *
+     * @param estadisticas Las estadísticas del idioma.
+     */
+    public void mostrarEstadisticas(EstadisticasIdioma estadisticas) {
+        salida.print(new StringBuilder(160)
+                .append("-----IDIOMA: ").append(estadisticas.idioma()).append("-----").append(SALTO)
+                .append("Libros: ").append(estadisticas.cantidad()).append(SALTO)
+                .append("Mínimo de descargas: ").append(estadisticas.minimo()).append(SALTO)
+                .append("Máximo de descargas: ").append(estadisticas.maximo()).append(SALTO)
+                .append("Promedio de descargas: ").append(String.format("%.1f", estadisticas.promedio())).append(SALTO)
+                .toString());
+    }
+
+    private static String fichaLibro(String titulo, String autor, String idioma, Integer numeroDescargas) {
+        return new StringBuilder(160)
+                .append("------LIBRO--------").append(SALTO)
+                .append("Título: ").append(titulo).append(SALTO)
+                .append("Autor: ").append(autor != null ? autor : "Desconocido").append(SALTO)
+                .append("Idioma: ").append(idioma).append(SALTO)
+                .append("Número de descargas: ").append(numeroDescargas).append(SALTO)
+                .toString();
+    }
+
+    private static String fichaAutor(AutorResumen autor, String libros) {
+        return new StringBuilder(160)
+                .append("-------AUTOR-------").append(SALTO)
+                .append("Autor: ").append(autor.nombre()).append(SALTO)
+                .append("Fecha de nacimiento: ").append(autor.anoNacimiento()).append(SALTO)
+                .append("Fecha de fallecimiento: ")
+                .append(autor.anoFallecimiento() != null ? autor.anoFallecimiento() : "Desconocido").append(SALTO)
+                .append("Libros: ").append(libros).append(SALTO)
+                .toString();
+    }
+}
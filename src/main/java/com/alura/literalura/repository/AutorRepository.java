@@ -1,11 +1,18 @@
 package com.alura.literalura.repository;
 
+import com.alura.literalura.dto.AutorResumen;
 import com.alura.literalura.model.Autor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +23,11 @@ import java.util.Optional;
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Long> {
 
+    /**
+     * Región de la caché de consultas con los listados de autores.
+     */
+    String REGION_LISTADO_AUTORES = "literalura.listado-autores";
+
     /**
      * Busca un autor por su nombre.
      *
@@ -25,19 +37,74 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
     Optional<Autor> findByNombre(String nombre);
 
     /**
-     * Busca autores que estuvieran vivos en un año específico y sus libros asociados.
+     * Busca los autores cuyos nombres estén en la colección dada.
+     *
+     * @param nombres Los nombres de los autores a buscar.
+     * @return Una lista de los autores encontrados.
+     */
+    List<Autor> findByNombreIn(Collection<String> nombres);
+
+    /**
+     * Busca autores que estuvieran vivos en un año específico, con la cantidad de libros de cada uno.
+     * El periodo de vida se expresa como un rango [nacimiento, fallecimiento) con el operador de contención
+     * de PostgreSQL, de modo que la consulta se resuelve con el índice GiST idx_autores_vida (ver schema.sql)
+     * en lugar de recorrer toda la tabla. La cantidad se calcula con count en la base de datos.
+     * Al ser una consulta nativa, cada fila se devuelve como un arreglo con las columnas en el orden de la selección.
      *
      * @param ano El año en el que se desea buscar autores vivos.
-     * @return Una lista de autores vivos en el año especificado con sus libros asociados.
+     * @return Una lista de filas (id, nombre, año de nacimiento, año de fallecimiento, cantidad de libros).
+     */
+    @Query(value = "SELECT a.id, a.nombre, a.ano_nacimiento, a.ano_fallecimiento, count(l.id) AS cantidad_libros " +
+            "FROM autores a LEFT JOIN libros l ON l.autor_id = a.id " +
+            "WHERE int4range(a.ano_nacimiento, CASE WHEN a.ano_fallecimiento IS NULL THEN NULL " +
+            "ELSE greatest(a.ano_fallecimiento, a.ano_nacimiento) END, '[)') @> :ano " +
+            "GROUP BY a.id, a.nombre, a.ano_nacimiento, a.ano_fallecimiento ORDER BY a.nombre",
+            nativeQuery = true)
+    List<Object[]> findFilasVivosEnAno(@Param("ano") int ano);
+
+    /**
+     * Busca todos los autores con la cantidad de libros de cada uno, sin los títulos.
+     * Se usa para cargar el índice en memoria de periodos de vida.
+     *
+     * @return Una lista de proyecciones de todos los autores.
+     */
+    @Query("SELECT new com.alura.literalura.dto.AutorResumen(a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento, count(l)) " +
+            "FROM Autor a LEFT JOIN a.libros l " +
+            "GROUP BY a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento")
+    List<AutorResumen> findResumenesConCantidad();
+
+    /**
+     * Busca todos los autores con la cantidad y los títulos de sus libros.
+     * Los títulos se concatenan en la base de datos (string_agg en PostgreSQL), de modo que se devuelve
+     * una fila por autor en lugar de una por libro.
+     * El resultado se guarda en la caché de consultas hasta que se modifique la tabla de libros o de autores.
+     *
+     * @return Una lista de proyecciones de todos los autores.
      */
-    @Query("SELECT a FROM Autor a LEFT JOIN FETCH a.libros WHERE (a.anoFallecimiento IS NULL OR a.anoFallecimiento > :ano) AND a.anoNacimiento <= :ano")
-    List<Autor> findAutoresVivosEnAnoConLibros(@Param("ano") int ano);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_LISTADO_AUTORES)
+    })
+    @Query("SELECT new com.alura.literalura.dto.AutorResumen(a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento, " +
+            "count(l), listagg(l.titulo, ', ') WITHIN GROUP (ORDER BY l.titulo)) " +
+            "FROM Autor a LEFT JOIN a.libros l " +
+            "GROUP BY a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento ORDER BY a.nombre")
+    List<AutorResumen> findResumenes();
 
     /**
-     * Busca todos los autores junto con sus libros asociados.
+     * Busca una página de autores con la cantidad y los títulos de sus libros, ordenados por nombre.
+     * Cada página se guarda por separado en la caché de consultas.
      *
-     * @return Una lista de todos los autores con sus libros asociados.
+     * @param pageable La página a obtener.
+     * @return Una porción de proyecciones de autores, indicando si hay más.
      */
-    @Query("SELECT a FROM Autor a LEFT JOIN FETCH a.libros")
-    List<Autor> findAllConLibros();
-}
\ No newline at end of file
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_LISTADO_AUTORES)
+    })
+    @Query("SELECT new com.alura.literalura.dto.AutorResumen(a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento, " +
+            "count(l), listagg(l.titulo, ', ') WITHIN GROUP (ORDER BY l.titulo)) " +
+            "FROM Autor a LEFT JOIN a.libros l " +
+            "GROUP BY a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento ORDER BY a.nombre, a.id")
+    Slice<AutorResumen> findResumenes(Pageable pageable);
+}
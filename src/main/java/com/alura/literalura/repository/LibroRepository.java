@@ -1,8 +1,14 @@
 package com.alura.literalura.repository;
 
+import com.alura.literalura.dto.LibroResumen;
 import com.alura.literalura.model.Libro;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,19 +23,96 @@ import java.util.Optional;
 public interface LibroRepository extends JpaRepository<Libro, Long> {
 
     /**
-     * Busca un libro por su título, ignorando mayúsculas y minúsculas.
+     * Región de la caché de consultas con los libros de cada idioma, completos o por páginas.
+     */
+    String REGION_LIBROS_POR_IDIOMA = "literalura.libros-por-idioma";
+
+    /**
+     * Busca un libro por su título normalizado.
+     * La comparación es de igualdad sobre la columna titulo_normalizado, que tiene un índice único.
      *
-     * @param titulo El título del libro a buscar.
+     * @param tituloNormalizado El título normalizado con Normalizador.normalizarTitulo.
      * @return Un Optional que contiene el libro si se encuentra, o Optional.empty() si no se encuentra.
      */
-    Optional<Libro> findByTituloIgnoreCase(String titulo);
+    Optional<Libro> findByTituloNormalizado(String tituloNormalizado);
 
     /**
      * Busca libros por idioma.
+     * Devuelve proyecciones con el nombre del autor resuelto en la misma consulta.
+     * El resultado se guarda en la caché de consultas hasta que se modifique la tabla de libros o de autores.
      *
      * @param idioma El idioma de los libros a buscar.
      * @return Una lista de libros que coinciden con el idioma especificado.
      */
-    @Query("SELECT l FROM Libro l WHERE l.idioma = :idioma")
-    List<Libro> findByIdioma(@Param("idioma") String idioma);
-}
\ No newline at end of file
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_LIBROS_POR_IDIOMA)
+    })
+    @Query("SELECT new com.alura.literalura.dto.LibroResumen(l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) " +
+            "FROM Libro l LEFT JOIN l.autor a WHERE l.idioma = :idioma ORDER BY l.id")
+    List<LibroResumen> findByIdioma(@Param("idioma") String idioma);
+
+    /**
+     * Obtiene la página de libros siguiente a un identificador dado (paginación por clave).
+     * A diferencia de la paginación por desplazamiento, el coste de cada página no depende de su posición,
+     * porque la consulta parte directamente del índice de la clave primaria.
+     *
+     * @param ultimoId El identificador del último libro de la página anterior, o 0 para la primera página.
+     * @param pageable El tamaño de la página; el número de página debe ser 0.
+     * @return Una porción de proyecciones de libros ordenadas por identificador, indicando si hay más.
+     */
+    @Query("SELECT new com.alura.literalura.dto.LibroResumen(l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) " +
+            "FROM Libro l LEFT JOIN l.autor a WHERE l.id > :ultimoId ORDER BY l.id")
+    Slice<LibroResumen> findSiguientes(@Param("ultimoId") long ultimoId, Pageable pageable);
+
+    /**
+     * Obtiene la página de libros de un idioma siguiente a un identificador dado (paginación por clave).
+     * La consulta recorre el índice idx_libros_idioma_id desde la posición del identificador.
+     * Cada página se guarda por separado en la caché de consultas.
+     *
+     * @param idioma   El idioma de los libros.
+     * @param ultimoId El identificador del último libro de la página anterior, o 0 para la primera página.
+     * @param pageable El tamaño de la página; el número de página debe ser 0.
+     * @return Una porción de proyecciones de libros ordenadas por identificador, indicando si hay más.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_LIBROS_POR_IDIOMA)
+    })
+    @Query("SELECT new com.alura.literalura.dto.LibroResumen(l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) " +
+            "FROM Libro l LEFT JOIN l.autor a WHERE l.idioma = :idioma AND l.id > :ultimoId ORDER BY l.id")
+    Slice<LibroResumen> findSiguientesPorIdioma(@Param("idioma") String idioma, @Param("ultimoId") long ultimoId, Pageable pageable);
+
+    /**
+     * Obtiene los libros más descargados.
+     * Los empates se resuelven a favor del libro registrado más recientemente, de modo que la consulta
+     * recorre hacia atrás el índice idx_libros_descargas_id sin ordenar.
+     *
+     * @param pageable El número de libros a obtener; el número de página debe ser 0.
+     * @return Las proyecciones de los libros, de mayor a menor número de descargas.
+     */
+    @Query("SELECT new com.alura.literalura.dto.LibroResumen(l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) " +
+            "FROM Libro l LEFT JOIN l.autor a WHERE l.idioma IS NOT NULL ORDER BY l.numeroDescargas DESC, l.id DESC")
+    List<LibroResumen> findMasDescargados(Pageable pageable);
+
+    /**
+     * Obtiene los libros más descargados de un idioma, recorriendo el índice idx_libros_idioma_descargas_id.
+     *
+     * @param idioma   El idioma de los libros.
+     * @param pageable El número de libros a obtener; el número de página debe ser 0.
+     * @return Las proyecciones de los libros, de mayor a menor número de descargas.
+     */
+    @Query("SELECT new com.alura.literalura.dto.LibroResumen(l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) " +
+            "FROM Libro l LEFT JOIN l.autor a WHERE l.idioma = :idioma ORDER BY l.numeroDescargas DESC, l.id DESC")
+    List<LibroResumen> findMasDescargadosPorIdioma(@Param("idioma") String idioma, Pageable pageable);
+
+    /**
+     * Calcula por idioma la cantidad de libros y el mínimo, el máximo y la suma de sus descargas.
+     * Cada fila se devuelve como un arreglo con las columnas en el orden de la selección.
+     *
+     * @return Una lista de filas (idioma, cantidad, mínimo, máximo, suma).
+     */
+    @Query("SELECT l.idioma, count(l), min(l.numeroDescargas), max(l.numeroDescargas), sum(l.numeroDescargas) " +
+            "FROM Libro l WHERE l.idioma IS NOT NULL GROUP BY l.idioma")
+    List<Object[]> findFilasEstadisticasPorIdioma();
+}
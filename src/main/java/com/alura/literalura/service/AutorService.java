@@ -1,11 +1,25 @@
 package com.alura.literalura.service;
 
+import com.alura.literalura.dto.AutorResumen;
 import com.alura.literalura.model.Autor;
 import com.alura.literalura.repository.AutorRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import static com.alura.literalura.util.Transacciones.despuesDeConfirmar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,22 +37,70 @@ public class AutorService {
     private AutorRepository autorRepository;
 
     /**
-     * Lista todos los autores junto con sus libros asociados.
+     * Caché de resolución de autores por nombre.
+     */
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    /**
+     * Índice en memoria de los periodos de vida de los autores.
+     */
+    @Autowired
+    private IndiceVidaAutores indiceVida;
+
+    /**
+     * Indica si las consultas de autores vivos se responden desde el índice en memoria.
+     */
+    @Value("${literalura.indice-vida.habilitado:true}")
+    private boolean indiceVidaHabilitado;
+
+    /**
+     * EntityManager usado para las inserciones masivas.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Tamaño de los lotes de inserción; coincide con el tamaño de lote JDBC de Hibernate.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLote;
+
+    /**
+     * Lista todos los autores con la cantidad y los títulos de sus libros.
+     *
+     * @return Una lista de proyecciones de todos los autores.
+     */
+    public List<AutorResumen> listarAutores() {
+        return autorRepository.findResumenes();
+    }
+
+    /**
+     * Lista una página de autores con la cantidad y los títulos de sus libros, ordenados por nombre.
      *
-     * @return Una lista de todos los autores con sus libros asociados.
+     * @param pagina El número de página, desde 0.
+     * @param tamano El número máximo de autores de la página.
+     * @return Una porción de proyecciones de autores, indicando si hay más.
      */
-    public List<Autor> listarAutores() {
-        return autorRepository.findAllConLibros();
+    public Slice<AutorResumen> listarAutores(int pagina, int tamano) {
+        return autorRepository.findResumenes(PageRequest.of(pagina, tamano));
     }
 
     /**
-     * Lista autores que estuvieran vivos en un año específico.
+     * Lista autores que estuvieran vivos en un año específico, con la cantidad de libros de cada uno.
+     * Si el índice en memoria está habilitado, la consulta no accede a la base de datos salvo la primera vez.
      *
      * @param ano El año en el que se desea buscar autores vivos.
-     * @return Una lista de autores vivos en el año especificado.
+     * @return Una lista de proyecciones de los autores vivos en el año especificado, ordenada por nombre.
      */
-    public List<Autor> listarAutoresVivosEnAno(int ano) {
-        return autorRepository.findAutoresVivosEnAnoConLibros(ano);
+    public List<AutorResumen> listarAutoresVivosEnAno(int ano) {
+        if (indiceVidaHabilitado) {
+            return indiceVida.vivosEnAno(ano);
+        }
+        return autorRepository.findFilasVivosEnAno(ano).stream()
+                .map(fila -> new AutorResumen(((Number) fila[0]).longValue(), (String) fila[1], (Integer) fila[2],
+                        (Integer) fila[3], ((Number) fila[4]).longValue()))
+                .toList();
     }
 
     /**
@@ -48,7 +110,35 @@ public class AutorService {
      * @return El autor creado.
      */
     public Autor crearAutor(Autor autor) {
-        return autorRepository.save(autor);
+        Autor creado = autorRepository.save(autor);
+        registrarEnCache(List.of(creado));
+        return creado;
+    }
+
+    /**
+     * Crea varios autores en una sola transacción.
+     * Las inserciones se envían en lotes JDBC y el contexto de persistencia se vacía cada lote
+     * para que la memoria usada no crezca con el tamaño de la colección.
+     *
+     * @param autores Los autores a crear.
+     * @return Los autores creados.
+     */
+    @Transactional
+    public List<Autor> crearAutores(Collection<Autor> autores) {
+        List<Autor> creados = new ArrayList<>(autores.size());
+        int pendientes = 0;
+        for (Autor autor : autores) {
+            entityManager.persist(autor);
+            creados.add(autor);
+            if (++pendientes == tamanoLote) {
+                entityManager.flush();
+                entityManager.clear();
+                pendientes = 0;
+            }
+        }
+        entityManager.flush();
+        registrarEnCache(creados);
+        return creados;
     }
 
     /**
@@ -63,12 +153,44 @@ public class AutorService {
 
     /**
      * Obtiene un autor por su nombre.
+     * Los autores ya resueltos se obtienen de la caché como referencias, sin consultar la base de datos.
+     * Tanto la caché como la consulta comparan el nombre exacto.
      *
      * @param nombre El nombre del autor a buscar.
      * @return Un Optional que contiene el autor si se encuentra, o Optional.empty() si no se encuentra.
      */
     public Optional<Autor> obtenerAutorPorNombre(String nombre) {
-        return autorRepository.findByNombre(nombre);
+        Optional<Long> id = cacheAutores.buscar(nombre);
+        if (id.isPresent()) {
+            return Optional.of(autorRepository.getReferenceById(id.get()));
+        }
+        Optional<Autor> autor = autorRepository.findByNombre(nombre);
+        autor.ifPresent(encontrado -> cacheAutores.registrar(encontrado.getNombre(), encontrado.getId()));
+        return autor;
+    }
+
+    /**
+     * Obtiene los autores registrados con los nombres dados.
+     * Los nombres presentes en la caché se resuelven como referencias y el resto con una sola consulta.
+     *
+     * @param nombres Los nombres de los autores a buscar.
+     * @return Un mapa de nombre a autor con los autores encontrados.
+     */
+    public Map<String, Autor> obtenerAutoresPorNombre(Collection<String> nombres) {
+        Map<String, Autor> autores = new HashMap<>();
+        Collection<String> pendientes = new LinkedHashSet<>();
+        for (String nombre : nombres) {
+            cacheAutores.buscar(nombre).ifPresentOrElse(
+                    id -> autores.put(nombre, autorRepository.getReferenceById(id)),
+                    () -> pendientes.add(nombre));
+        }
+        if (!pendientes.isEmpty()) {
+            autorRepository.findByNombreIn(pendientes).forEach(autor -> {
+                autores.putIfAbsent(autor.getNombre(), autor);
+                cacheAutores.registrar(autor.getNombre(), autor.getId());
+            });
+        }
+        return autores;
     }
 
     /**
@@ -84,7 +206,12 @@ public class AutorService {
         autor.setNombre(autorDetalles.getNombre());
         autor.setAnoNacimiento(autorDetalles.getAnoNacimiento());
         autor.setAnoFallecimiento(autorDetalles.getAnoFallecimiento());
-        return autorRepository.save(autor);
+        Autor actualizado = autorRepository.save(autor);
+        // El nombre puede haber cambiado: al confirmar se descarta la entrada anterior antes de registrar la nueva,
+        // así un rollback no deja la caché sin el nombre vigente ni una lectura simultánea la deja con el anterior
+        despuesDeConfirmar(() -> cacheAutores.invalidar(id));
+        registrarEnCache(List.of(actualizado));
+        return actualizado;
     }
 
     /**
@@ -94,5 +221,23 @@ public class AutorService {
      */
     public void eliminarAutor(Long id) {
         autorRepository.deleteById(id);
+        despuesDeConfirmar(() -> {
+            cacheAutores.invalidar(id);
+            indiceVida.eliminar(id);
+        });
+    }
+
+    /**
+     * Registra autores en la caché y en el índice de periodos de vida.
+     * Si hay una transacción en curso, el registro se aplaza hasta que se confirme, para no
+     * guardar identificadores que desaparecerían con un rollback.
+     *
+     * @param autores Los autores persistidos.
+     */
+    private void registrarEnCache(List<Autor> autores) {
+        despuesDeConfirmar(() -> autores.forEach(autor -> {
+            cacheAutores.registrar(autor.getNombre(), autor.getId());
+            indiceVida.registrar(autor);
+        }));
     }
 }
\ No newline at end of file
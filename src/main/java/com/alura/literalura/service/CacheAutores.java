@@ -0,0 +1,90 @@
+package com.alura.literalura.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Caché en memoria de la resolución de autores por nombre.
+ * Asocia el nombre de cada autor, tal como está registrado, con su identificador, de modo que los autores
+ * ya vistos se resuelven sin consultar la base de datos. La clave es el nombre exacto, la misma regla que
+ * aplica la consulta por nombre cuando el autor no está en la caché, para que un acierto y un fallo
+ * resuelvan siempre el mismo autor. El tamaño está acotado: al alcanzar el máximo, Caffeine desaloja
+ * los autores usados con menos frecuencia y hace más tiempo. Los aciertos, fallos, desalojos y el tamaño se
+ * publican en el registro de métricas como la caché "autores" (métricas cache.gets, cache.evictions, cache.size).
+ */
+@Component
+public class CacheAutores {
+
+    /**
+     * Número máximo de autores en la caché.
+     */
+    @Value("${literalura.cache.autores.tamano-maximo:10000}")
+    private int tamanoMaximo;
+
+    @Autowired
+    private MeterRegistry registroMetricas;
+
+    /**
+     * Identificadores de autor indexados por nombre.
+     */
+    private Cache<String, Long> idsPorNombre;
+
+    /**
+     * Crea la caché con el tamaño máximo configurado y registra sus estadísticas como métricas.
+     */
+    @PostConstruct
+    public void iniciar() {
+        idsPorNombre = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registroMetricas, idsPorNombre, "autores");
+    }
+
+    /**
+     * Busca el identificador de un autor por su nombre.
+     *
+     * @param nombre El nombre del autor.
+     * @return Un Optional con el identificador si el autor está en la caché, o Optional.empty() si no.
+     */
+    public Optional<Long> buscar(String nombre) {
+        return nombre != null ? Optional.ofNullable(idsPorNombre.getIfPresent(nombre)) : Optional.empty();
+    }
+
+    /**
+     * Registra un autor en la caché.
+     *
+     * @param nombre El nombre del autor.
+     * @param id     El identificador del autor.
+     */
+    public void registrar(String nombre, Long id) {
+        if (nombre == null || id == null) {
+            return;
+        }
+        idsPorNombre.put(nombre, id);
+    }
+
+    /**
+     * Elimina de la caché las entradas que apuntan al autor con el identificador dado.
+     *
+     * @param id El identificador del autor.
+     */
+    public void invalidar(Long id) {
+        idsPorNombre.asMap().values().removeIf(id::equals);
+    }
+
+    /**
+     * Vacía la caché.
+     */
+    public void limpiar() {
+        idsPorNombre.invalidateAll();
+    }
+}
@@ -0,0 +1,500 @@
+package com.alura.literalura.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché persistente en disco de las respuestas HTTP de la API.
+ * Cada respuesta se guarda comprimida con GZIP bajo una clave derivada de la URL normalizada, junto con
+ * un archivo de metadatos (ETag, Last-Modified y fecha de almacenamiento). Las entradas sobreviven a los
+ * reinicios de la aplicación, tienen un tiempo de vida configurable y se desalojan por antigüedad de uso
+ * (LRU) cuando el tamaño total supera el máximo.
+ */
+@Component
+public class CacheRespuestasHttp {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRespuestasHttp.class);
+
+    private static final String EXTENSION_CUERPO = ".json.gz";
+    private static final String EXTENSION_METADATOS = ".properties";
+
+    /**
+     * Indica si la caché está habilitada.
+     */
+    @Value("${literalura.http.cache.habilitada:true}")
+    private boolean habilitada;
+
+    /**
+     * Directorio donde se guardan las respuestas.
+     */
+    @Value("${literalura.http.cache.directorio:${user.home}/.literalura/cache-http}")
+    private String directorio;
+
+    /**
+     * Tiempo durante el cual una respuesta se considera fresca, en milisegundos.
+     */
+    @Value("${literalura.http.cache.ttl:3600000}")
+    private long ttlMs;
+
+    /**
+     * Tiempo adicional durante el cual una respuesta caducada puede servirse mientras se revalida, en milisegundos.
+     */
+    @Value("${literalura.http.cache.obsoleta-max:86400000}")
+    private long obsoletaMaxMs;
+
+    /**
+     * Tamaño máximo de la caché en disco, en bytes.
+     */
+    @Value("${literalura.http.cache.tamano-maximo:104857600}")
+    private long tamanoMaximo;
+
+    /**
+     * Tamaño ocupado por los cuerpos almacenados; -1 mientras no se haya calculado.
+     */
+    private final AtomicLong tamanoActual = new AtomicLong(-1);
+
+    /**
+     * Entrada almacenada en la caché.
+     *
+     * @param clave              Clave de la entrada, derivada de la URL normalizada.
+     * @param url                URL normalizada de la respuesta.
+     * @param etag               Cabecera ETag de la respuesta, o null.
+     * @param ultimaModificacion Cabecera Last-Modified de la respuesta, o null.
+     * @param almacenadaEn       Momento en que la respuesta se almacenó o se revalidó, en milisegundos.
+     */
+    public record Entrada(String clave, String url, String etag, String ultimaModificacion, long almacenadaEn) {
+    }
+
+    /**
+     * Indica si la caché está habilitada.
+     *
+     * @return true si las respuestas se guardan en disco.
+     */
+    public boolean estaHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Busca la entrada almacenada para una URL.
+     *
+     * @param url La URL de la solicitud.
+     * @return Un Optional con la entrada si existe, o Optional.empty() si no.
+     */
+    public Optional<Entrada> buscar(String url) {
+        if (!habilitada) {
+            return Optional.empty();
+        }
+        String clave = clave(url);
+        Path metadatos = ruta(clave, EXTENSION_METADATOS);
+        if (!Files.exists(metadatos) || !Files.exists(ruta(clave, EXTENSION_CUERPO))) {
+            return Optional.empty();
+        }
+        try (InputStream entrada = Files.newInputStream(metadatos)) {
+            Properties propiedades = new Properties();
+            propiedades.load(entrada);
+            return Optional.of(new Entrada(clave, propiedades.getProperty("url"), propiedades.getProperty("etag"),
+                    propiedades.getProperty("ultimaModificacion"), Long.parseLong(propiedades.getProperty("almacenadaEn", "0"))));
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Entrada de caché ilegible para {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Indica si una entrada sigue dentro de su tiempo de vida.
+     *
+     * @param entrada La entrada de la caché.
+     * @return true si la entrada puede servirse sin revalidar.
+     */
+    public boolean esFresca(Entrada entrada) {
+        return System.currentTimeMillis() - entrada.almacenadaEn() < ttlMs;
+    }
+
+    /**
+     * Indica si una entrada caducada todavía puede servirse mientras se revalida en segundo plano.
+     *
+     * @param entrada La entrada de la caché.
+     * @return true si la entrada puede servirse obsoleta.
+     */
+    public boolean puedeServirseObsoleta(Entrada entrada) {
+        return System.currentTimeMillis() - entrada.almacenadaEn() < ttlMs + obsoletaMaxMs;
+    }
+
+    /**
+     * Abre el cuerpo almacenado de una entrada y la marca como usada recientemente.
+     *
+     * @param entrada La entrada de la caché.
+     * @return Un flujo con el cuerpo descomprimido.
+     * @throws UncheckedIOException Si el cuerpo no puede leerse.
+     */
+    public InputStream abrir(Entrada entrada) {
+        Path cuerpo = ruta(entrada.clave(), EXTENSION_CUERPO);
+        try {
+            Files.setLastModifiedTime(cuerpo, FileTime.fromMillis(System.currentTimeMillis()));
+            return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(cuerpo)), 8192);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la respuesta almacenada en caché", e);
+        }
+    }
+
+    /**
+     * Marca una entrada como revalidada tras una respuesta 304 Not Modified.
+     *
+     * @param entrada   La entrada de la caché.
+     * @param cabeceras Las cabeceras de la respuesta 304.
+     * @return La entrada actualizada.
+     */
+    public Entrada renovar(Entrada entrada, HttpHeaders cabeceras) {
+        Entrada renovada = new Entrada(entrada.clave(), entrada.url(),
+                cabeceras.firstValue("ETag").orElse(entrada.etag()),
+                cabeceras.firstValue("Last-Modified").orElse(entrada.ultimaModificacion()),
+                System.currentTimeMillis());
+        try {
+            escribirMetadatos(renovada);
+        } catch (IOException e) {
+            log.warn("No se pudo renovar la entrada de caché de {}: {}", entrada.url(), e.getMessage());
+        }
+        return renovada;
+    }
+
+    /**
+     * Indica si una respuesta puede almacenarse según su cabecera Cache-Control.
+     *
+     * @param cabeceras Las cabeceras de la respuesta.
+     * @return true si la respuesta puede almacenarse.
+     */
+    public boolean esAlmacenable(HttpHeaders cabeceras) {
+        return habilitada && cabeceras.allValues("Cache-Control").stream()
+                .noneMatch(valor -> valor.toLowerCase(Locale.ROOT).contains("no-store"));
+    }
+
+    /**
+     * Envuelve el cuerpo de una respuesta para almacenarlo mientras se lee.
+     * El cuerpo se comprime en un archivo temporal a medida que quien llama lo consume; al cerrar el flujo
+     * se lee el resto, y la entrada se publica de forma atómica. Si la lectura falla o el flujo se descarta
+     * (ver descartar), no se almacena nada.
+     *
+     * @param url       La URL de la solicitud.
+     * @param cabeceras Las cabeceras de la respuesta.
+     * @param cuerpo    El flujo con el cuerpo de la respuesta.
+     * @return Un flujo que entrega el mismo contenido que el cuerpo original.
+     */
+    public InputStream almacenar(String url, HttpHeaders cabeceras, InputStream cuerpo) {
+        String normalizada = normalizarUrl(url);
+        Entrada entrada = new Entrada(clave(url), normalizada, cabeceras.firstValue("ETag").orElse(null),
+                cabeceras.firstValue("Last-Modified").orElse(null), System.currentTimeMillis());
+        try {
+            Files.createDirectories(Paths.get(directorio));
+            Path temporal = Files.createTempFile(Paths.get(directorio), entrada.clave(), ".tmp");
+            return new FlujoAlmacenado(cuerpo, temporal, entrada);
+        } catch (IOException e) {
+            log.warn("No se pudo preparar la caché para {}: {}", url, e.getMessage());
+            return cuerpo;
+        }
+    }
+
+    /**
+     * Cierra un flujo sin leer el resto del cuerpo.
+     * Si el flujo es uno devuelto por almacenar, se descarta el archivo temporal en lugar de publicar la entrada,
+     * de modo que la respuesta no se sigue descargando solo para la caché.
+     *
+     * @param flujo El flujo que ya no se necesita.
+     */
+    public void descartar(InputStream flujo) {
+        try {
+            if (flujo instanceof FlujoAlmacenado almacenado) {
+                almacenado.descartar();
+            } else {
+                flujo.close();
+            }
+        } catch (IOException e) {
+            log.debug("No se pudo cerrar el flujo descartado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Normaliza una URL para usarla como clave: esquema y host en minúsculas, sin puerto por defecto,
+     * sin fragmento y con los parámetros de la consulta ordenados.
+     *
+     * @param url La URL a normalizar.
+     * @return La URL normalizada.
+     */
+    public static String normalizarUrl(String url) {
+        URI uri = URI.create(url.trim());
+        String esquema = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "https";
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        int puerto = uri.getPort();
+        boolean puertoPorDefecto = puerto == -1
+                || ("https".equals(esquema) && puerto == 443)
+                || ("http".equals(esquema) && puerto == 80);
+        String ruta = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        StringBuilder normalizada = new StringBuilder(esquema).append("://").append(host);
+        if (!puertoPorDefecto) {
+            normalizada.append(':').append(puerto);
+        }
+        normalizada.append(ruta);
+        String consulta = uri.getRawQuery();
+        if (consulta != null && !consulta.isEmpty()) {
+            normalizada.append('?').append(Arrays.stream(consulta.split("&"))
+                    .filter(parametro -> !parametro.isEmpty())
+                    .sorted()
+                    .collect(Collectors.joining("&")));
+        }
+        return normalizada.toString();
+    }
+
+    /**
+     * Calcula la clave de una URL como el resumen SHA-256 de su forma normalizada.
+     */
+    private static String clave(String url) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(normalizarUrl(url).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private Path ruta(String clave, String extension) {
+        return Paths.get(directorio, clave + extension);
+    }
+
+    private void escribirMetadatos(Entrada entrada) throws IOException {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("url", entrada.url());
+        propiedades.setProperty("almacenadaEn", String.valueOf(entrada.almacenadaEn()));
+        if (entrada.etag() != null) {
+            propiedades.setProperty("etag", entrada.etag());
+        }
+        if (entrada.ultimaModificacion() != null) {
+            propiedades.setProperty("ultimaModificacion", entrada.ultimaModificacion());
+        }
+        Path temporal = Files.createTempFile(Paths.get(directorio), entrada.clave(), ".tmp");
+        try (OutputStream salida = Files.newOutputStream(temporal)) {
+            propiedades.store(salida, null);
+        }
+        Files.move(temporal, ruta(entrada.clave(), EXTENSION_METADATOS), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Publica una entrada cuyo cuerpo ya está completo en un archivo temporal.
+     */
+    private void publicar(Entrada entrada, Path temporal) throws IOException {
+        Path cuerpo = ruta(entrada.clave(), EXTENSION_CUERPO);
+        long anterior = Files.exists(cuerpo) ? Files.size(cuerpo) : 0;
+        long nuevo = Files.size(temporal);
+        Files.move(temporal, cuerpo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        escribirMetadatos(entrada);
+        if (tamanoActual.get() >= 0) {
+            tamanoActual.addAndGet(nuevo - anterior);
+        }
+        desalojarSiEsNecesario();
+    }
+
+    /**
+     * Elimina las entradas usadas hace más tiempo hasta que el tamaño total baje del 90 % del máximo.
+     */
+    private synchronized void desalojarSiEsNecesario() {
+        try {
+            List<Path> cuerpos = new ArrayList<>();
+            try (DirectoryStream<Path> archivos = Files.newDirectoryStream(Paths.get(directorio), "*" + EXTENSION_CUERPO)) {
+                archivos.forEach(cuerpos::add);
+            }
+            if (tamanoActual.get() < 0) {
+                long total = 0;
+                for (Path cuerpo : cuerpos) {
+                    total += tamanoSeguro(cuerpo);
+                }
+                tamanoActual.set(total);
+            }
+            if (tamanoActual.get() <= tamanoMaximo) {
+                return;
+            }
+            cuerpos.sort(Comparator.comparingLong(this::ultimoUso));
+            long objetivo = tamanoMaximo * 9 / 10;
+            for (Path cuerpo : cuerpos) {
+                if (tamanoActual.get() <= objetivo) {
+                    break;
+                }
+                long tamano = tamanoSeguro(cuerpo);
+                String nombre = cuerpo.getFileName().toString();
+                String clave = nombre.substring(0, nombre.length() - EXTENSION_CUERPO.length());
+                Files.deleteIfExists(ruta(clave, EXTENSION_METADATOS));
+                if (Files.deleteIfExists(cuerpo)) {
+                    tamanoActual.addAndGet(-tamano);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo desalojar la caché HTTP: {}", e.getMessage());
+        }
+    }
+
+    private long ultimoUso(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long tamanoSeguro(Path archivo) {
+        try {
+            return Files.size(archivo);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Flujo que copia en un archivo comprimido todo lo que se lee del cuerpo original.
+     */
+    private class FlujoAlmacenado extends FilterInputStream {
+
+        private final Path temporal;
+        private final Entrada entrada;
+        private final GZIPOutputStream salida;
+        private boolean lecturaFallida;
+        private boolean escrituraFallida;
+        private boolean descartado;
+        private boolean cerrado;
+
+        FlujoAlmacenado(InputStream cuerpo, Path temporal, Entrada entrada) throws IOException {
+            super(cuerpo);
+            this.temporal = temporal;
+            this.entrada = entrada;
+            this.salida = new GZIPOutputStream(Files.newOutputStream(temporal), 8192);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int leido = super.read();
+                if (leido >= 0) {
+                    copiar(new byte[]{(byte) leido}, 0, 1);
+                }
+                return leido;
+            } catch (IOException e) {
+                lecturaFallida = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int leidos = super.read(b, off, len);
+                if (leidos > 0) {
+                    copiar(b, off, leidos);
+                }
+                return leidos;
+            } catch (IOException e) {
+                lecturaFallida = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Los bytes saltados también deben llegar a la caché
+            byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 1))];
+            long saltados = 0;
+            while (saltados < n) {
+                int leidos = read(buffer, 0, (int) Math.min(buffer.length, n - saltados));
+                if (leidos < 0) {
+                    break;
+                }
+                saltados += leidos;
+            }
+            return saltados;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Cierra el flujo sin leer el resto del cuerpo ni publicar la entrada.
+         */
+        void descartar() throws IOException {
+            descartado = true;
+            close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            try {
+                if (!lecturaFallida && !escrituraFallida && !descartado) {
+                    // Consume el resto del cuerpo para que la entrada quede completa
+                    byte[] buffer = new byte[8192];
+                    while (read(buffer, 0, buffer.length) >= 0) {
+                        // La copia a la caché ocurre en read
+                    }
+                }
+            } catch (IOException e) {
+                lecturaFallida = true;
+            } finally {
+                try {
+                    salida.close();
+                    if (!lecturaFallida && !escrituraFallida && !descartado) {
+                        publicar(entrada, temporal);
+                    }
+                } catch (IOException e) {
+                    log.warn("No se pudo almacenar en caché la respuesta de {}: {}", entrada.url(), e.getMessage());
+                } finally {
+                    Files.deleteIfExists(temporal);
+                    super.close();
+                }
+            }
+        }
+
+        private void copiar(byte[] b, int off, int len) {
+            if (escrituraFallida) {
+                return;
+            }
+            try {
+                salida.write(b, off, len);
+            } catch (IOException e) {
+                // Un fallo de disco no debe interrumpir la lectura de la respuesta
+                escrituraFallida = true;
+                log.warn("No se pudo escribir en la caché HTTP: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.util.Normalizador;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché negativa de los títulos que la API no devolvió con una coincidencia exacta.
+ * Mientras una entrada está vigente, buscar de nuevo el mismo título se responde sin acceder a la red.
+ * Las entradas caducan tras un tiempo configurable, porque el catálogo de Gutendex crece, y el tamaño
+ * está acotado: al alcanzar el máximo se eliminan las caducadas y, si no basta, una fracción de las existentes.
+ */
+@Component
+public class CacheTitulosNoEncontrados {
+
+    /**
+     * Tiempo durante el cual se recuerda un título no encontrado, en milisegundos.
+     */
+    @Value("${literalura.cache.titulos-no-encontrados.ttl:600000}")
+    private long ttlMs;
+
+    /**
+     * Número máximo de títulos en la caché.
+     */
+    @Value("${literalura.cache.titulos-no-encontrados.tamano-maximo:1000}")
+    private int tamanoMaximo;
+
+    /**
+     * Instante de caducidad (System.nanoTime) de cada título, indexado por título normalizado.
+     */
+    private final ConcurrentHashMap<String, Long> caducidades = new ConcurrentHashMap<>();
+
+    /**
+     * Indica si un título se buscó recientemente en la API sin encontrar una coincidencia exacta.
+     *
+     * @param titulo El título buscado.
+     * @return true si el título está en la caché y no ha caducado.
+     */
+    public boolean contiene(String titulo) {
+        String clave = Normalizador.normalizarTitulo(titulo);
+        Long caducidad = clave != null ? caducidades.get(clave) : null;
+        if (caducidad == null) {
+            return false;
+        }
+        if (caducidad - System.nanoTime() <= 0) {
+            caducidades.remove(clave, caducidad);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Registra un título que la API no devolvió con una coincidencia exacta.
+     *
+     * @param titulo El título buscado.
+     */
+    public void registrar(String titulo) {
+        String clave = Normalizador.normalizarTitulo(titulo);
+        if (clave == null) {
+            return;
+        }
+        if (caducidades.size() >= tamanoMaximo) {
+            desalojar();
+        }
+        caducidades.put(clave, System.nanoTime() + ttlMs * 1_000_000);
+    }
+
+    /**
+     * Elimina un título de la caché.
+     *
+     * @param titulo El título a olvidar.
+     */
+    public void invalidar(String titulo) {
+        String clave = Normalizador.normalizarTitulo(titulo);
+        if (clave != null) {
+            caducidades.remove(clave);
+        }
+    }
+
+    /**
+     * Vacía la caché.
+     */
+    public void limpiar() {
+        caducidades.clear();
+    }
+
+    /**
+     * Obtiene el número de títulos en la caché, incluidos los caducados que aún no se han eliminado.
+     *
+     * @return El tamaño actual de la caché.
+     */
+    public int getTamano() {
+        return caducidades.size();
+    }
+
+    /**
+     * Elimina las entradas caducadas y, si la caché sigue llena, aproximadamente una décima parte del resto.
+     */
+    private void desalojar() {
+        long ahora = System.nanoTime();
+        caducidades.values().removeIf(caducidad -> caducidad - ahora <= 0);
+        int aDesalojar = caducidades.size() - tamanoMaximo + Math.max(1, tamanoMaximo / 10);
+        Iterator<String> claves = caducidades.keySet().iterator();
+        while (aDesalojar-- > 0 && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+}
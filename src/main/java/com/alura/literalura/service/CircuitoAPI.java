@@ -0,0 +1,94 @@
+package com.alura.literalura.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cortocircuito de las solicitudes a la API.
+ * Tras varios fallos consecutivos del servicio (errores de red o respuestas 5xx/429) el circuito se abre
+ * y las solicitudes fallan de inmediato, sin ocupar hilos ni conexiones esperando a una API caída.
+ * Pasado el tiempo de espera se deja pasar una única solicitud de prueba: si tiene éxito el circuito
+ * se cierra, y si falla vuelve a abrirse.
+ */
+@Component
+public class CircuitoAPI {
+
+    /**
+     * Estados del circuito.
+     */
+    public enum Estado {
+        /**
+         * Las solicitudes pasan con normalidad.
+         */
+        CERRADO,
+        /**
+         * Las solicitudes se rechazan sin enviarse.
+         */
+        ABIERTO,
+        /**
+         * Hay una solicitud de prueba en curso; el resto se rechaza.
+         */
+        SEMIABIERTO
+    }
+
+    /**
+     * Número de fallos consecutivos que abren el circuito.
+     */
+    @Value("${literalura.http.circuito.umbral-fallos:5}")
+    private int umbralFallos;
+
+    /**
+     * Tiempo que el circuito permanece abierto antes de dejar pasar una solicitud de prueba, en milisegundos.
+     */
+    @Value("${literalura.http.circuito.espera:30000}")
+    private long esperaMs;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosConsecutivos;
+    private long abiertoDesde;
+
+    /**
+     * Indica si una solicitud puede enviarse. Si el circuito lleva abierto el tiempo de espera,
+     * la solicitud se acepta como prueba y el circuito pasa a semiabierto.
+     *
+     * @return true si la solicitud puede enviarse.
+     */
+    public synchronized boolean permitir() {
+        if (estado == Estado.CERRADO) {
+            return true;
+        }
+        if (estado == Estado.ABIERTO && System.nanoTime() - abiertoDesde >= esperaMs * 1_000_000) {
+            estado = Estado.SEMIABIERTO;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registra una respuesta del servicio; cierra el circuito.
+     */
+    public synchronized void registrarExito() {
+        estado = Estado.CERRADO;
+        fallosConsecutivos = 0;
+    }
+
+    /**
+     * Registra un fallo del servicio; abre el circuito si se alcanza el umbral o si era la solicitud de prueba.
+     */
+    public synchronized void registrarFallo() {
+        fallosConsecutivos++;
+        if (estado == Estado.SEMIABIERTO || fallosConsecutivos >= umbralFallos) {
+            estado = Estado.ABIERTO;
+            abiertoDesde = System.nanoTime();
+        }
+    }
+
+    /**
+     * Obtiene el estado actual del circuito.
+     *
+     * @return El estado del circuito.
+     */
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+}
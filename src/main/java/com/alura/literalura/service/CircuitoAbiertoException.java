@@ -0,0 +1,16 @@
+package com.alura.literalura.service;
+
+/**
+ * Excepción lanzada cuando una solicitud a la API se rechaza porque el circuito está abierto.
+ */
+public class CircuitoAbiertoException extends RuntimeException {
+
+    /**
+     * Crea la excepción para una URL rechazada.
+     *
+     * @param url La URL de la solicitud rechazada.
+     */
+    public CircuitoAbiertoException(String url) {
+        super("La API no está disponible; se rechaza la solicitud a " + url);
+    }
+}
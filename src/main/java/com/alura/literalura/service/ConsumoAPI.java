@@ -1,20 +1,147 @@
 package com.alura.literalura.service;
 
+import com.alura.literalura.util.FlujoContado;
+import com.alura.literalura.util.VentanaLatencias;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Servicio para consumir datos de una API externa.
  * Esta clase proporciona métodos para realizar solicitudes HTTP y obtener datos en formato JSON.
+ * Las respuestas pasan por la caché en disco: las entradas frescas se sirven sin acceder a la red,
+ * las caducadas se revalidan con ETag/Last-Modified y, mientras tanto, pueden servirse obsoletas.
+ * Las solicitudes a la red pasan por un limitador de tasa, y las solicitudes simultáneas a la misma URL
+ * se agrupan: solo una llega a la API y el resto lee su respuesta de la caché.
+ * Los fallos transitorios se reintentan, las respuestas lentas se cubren con una segunda solicitud
+ * y un cortocircuito evita esperar a la API mientras está caída.
+ * Cada solicitud a la red se mide en el registro de métricas: latencia y código de estado por intento,
+ * bytes recibidos por respuesta y número de reintentos y coberturas.
  */
 @Component
 public class ConsumoAPI {
 
+    private static final Logger log = LoggerFactory.getLogger(ConsumoAPI.class);
+
+    /**
+     * Cliente HTTP compartido.
+     * Definido en HttpClientConfig y reutilizado en todas las solicitudes para aprovechar las conexiones abiertas.
+     */
+    @Autowired
+    private HttpClient httpClient;
+
+    /**
+     * Caché persistente de respuestas HTTP.
+     */
+    @Autowired
+    private CacheRespuestasHttp cacheRespuestas;
+
+    /**
+     * Limitador de tasa de las solicitudes a la API.
+     */
+    @Autowired
+    private LimitadorTasa limitador;
+
+    /**
+     * Cortocircuito que rechaza las solicitudes mientras la API está caída.
+     */
+    @Autowired
+    private CircuitoAPI circuito;
+
+    /**
+     * Registro de métricas de Micrometer.
+     */
+    @Autowired
+    private MeterRegistry registroMetricas;
+
+    /**
+     * Tiempo máximo de espera para recibir la respuesta, en milisegundos.
+     */
+    @Value("${literalura.http.read-timeout:15000}")
+    private long tiempoLecturaMs;
+
+    /**
+     * Número máximo de reintentos de una solicitud tras un fallo transitorio.
+     */
+    @Value("${literalura.http.reintentos.maximo:3}")
+    private int maximoReintentos;
+
+    /**
+     * Espera base entre reintentos, en milisegundos; se duplica en cada intento.
+     */
+    @Value("${literalura.http.reintentos.espera-base:200}")
+    private long esperaBaseMs;
+
+    /**
+     * Espera máxima entre reintentos, en milisegundos.
+     */
+    @Value("${literalura.http.reintentos.espera-maxima:5000}")
+    private long esperaMaximaMs;
+
+    /**
+     * Indica si se envían solicitudes de cobertura cuando una respuesta tarda más que el percentil 95.
+     */
+    @Value("${literalura.http.cobertura.habilitada:true}")
+    private boolean coberturaHabilitada;
+
+    /**
+     * Número de latencias observadas necesarias antes de empezar a cubrir solicitudes.
+     */
+    @Value("${literalura.http.cobertura.muestras-minimas:20}")
+    private int muestrasMinimasCobertura;
+
+    /**
+     * Retardo mínimo antes de enviar una solicitud de cobertura, en milisegundos.
+     */
+    @Value("${literalura.http.cobertura.retardo-minimo:50}")
+    private long retardoMinimoCoberturaMs;
+
+    /**
+     * Latencias recientes de la API, para estimar el percentil 95 que dispara la cobertura.
+     */
+    private final VentanaLatencias latencias = new VentanaLatencias(256);
+
+    /**
+     * Revalidaciones en segundo plano en curso, indexadas por URL normalizada.
+     */
+    private final ConcurrentHashMap<String, Boolean> revalidaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Solicitudes en curso, indexadas por URL normalizada. Cada señal se completa cuando quien hizo la
+     * solicitud cierra el flujo, momento en que la respuesta ya está publicada en la caché.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> enVuelo = new ConcurrentHashMap<>();
+
     /**
      * Obtiene datos de una URL específica utilizando una solicitud HTTP GET.
      *
@@ -23,28 +150,578 @@ public class ConsumoAPI {
      * @throws RuntimeException Si ocurre un error de E/S o si la solicitud es interrumpida.
      */
     public String obtenerDatos(String url) {
-        // Crea una instancia de HttpClient para realizar solicitudes HTTP
-        HttpClient client = HttpClient.newHttpClient();
+        return leerTexto(obtenerFlujo(url));
+    }
 
-        // Construye una solicitud HTTP GET con la URL proporcionada
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .build();
+    /**
+     * Obtiene datos de una URL específica de forma asíncrona, sin bloquear el hilo que realiza la llamada.
+     *
+     * @param url La URL de la API desde la cual se obtendrán los datos.
+     * @return Un CompletableFuture que se completa con los datos en formato JSON obtenidos de la API.
+     */
+    public CompletableFuture<String> obtenerDatosAsync(String url) {
+        return obtenerFlujoAsync(url).thenApply(this::leerTexto);
+    }
 
-        // Envía la solicitud HTTP y obtiene la respuesta
-        HttpResponse<String> response = null;
+    /**
+     * Obtiene el cuerpo de la respuesta de una URL como un flujo de bytes.
+     * El cuerpo no se acumula en memoria: se entrega a medida que llega por la red, de modo que
+     * el deserializador puede procesarlo directamente. Quien llama es responsable de cerrar el flujo.
+     * Si ya hay una solicitud en curso para la misma URL, se espera a que termine y se lee su respuesta
+     * de la caché en lugar de repetirla.
+     *
+     * @param url La URL de la API desde la cual se obtendrán los datos.
+     * @return Un flujo de entrada con los datos en formato JSON obtenidos de la API.
+     * @throws RuntimeException Si ocurre un error de E/S o si la solicitud es interrumpida.
+     */
+    public InputStream obtenerFlujo(String url) {
+        Optional<CacheRespuestasHttp.Entrada> almacenada = cacheRespuestas.buscar(url);
+        if (almacenada.isPresent()) {
+            InputStream desdeCache = servirDesdeCache(url, almacenada.get());
+            if (desdeCache != null) {
+                return desdeCache;
+            }
+        }
+
+        // La agrupación se apoya en la caché para compartir la respuesta; sin ella, cada llamada hace su solicitud
+        if (!cacheRespuestas.estaHabilitada()) {
+            return descargar(url, almacenada);
+        }
+        String clave = CacheRespuestasHttp.normalizarUrl(url);
+        CompletableFuture<Void> senal = new CompletableFuture<>();
+        CompletableFuture<Void> lider = enVuelo.putIfAbsent(clave, senal);
+        if (lider != null) {
+            esperar(lider);
+            Optional<InputStream> compartida = leerCompartida(url);
+            return compartida.orElseGet(() -> descargar(url, cacheRespuestas.buscar(url)));
+        }
         try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        } catch (IOException e) {
+            return alCerrar(descargar(url, almacenada), () -> liberar(clave, senal));
+        } catch (RuntimeException e) {
+            liberar(clave, senal);
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el cuerpo de la respuesta de una URL como un flujo de bytes, confirmado por la API.
+     * A diferencia de obtenerFlujo, nunca sirve la copia almacenada sin preguntar: siempre se envía la solicitud,
+     * condicional si hay una copia, y la copia solo se entrega si la API responde 304. Si la API falla, se lanza
+     * el error en lugar de servir la copia obsoleta. Sirve a quien necesita datos actuales, como la
+     * sincronización de descargas; la respuesta se sigue almacenando en la caché.
+     *
+     * @param url La URL de la API desde la cual se obtendrán los datos.
+     * @return Un flujo de entrada con los datos en formato JSON obtenidos de la API.
+     * @throws RuntimeException Si ocurre un error de E/S, si la API falla o si la solicitud es interrumpida.
+     */
+    public InputStream obtenerFlujoRevalidado(String url) {
+        Optional<CacheRespuestasHttp.Entrada> almacenada = cacheRespuestas.buscar(url);
+        try {
+            return procesarRespuesta(url, almacenada, enviar(url, almacenada, null).get());
+        } catch (ExecutionException e) {
+            return recuperar(url, Optional.empty(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("La solicitud fue interrumpida", e);
+        }
+    }
+
+    /**
+     * Obtiene el cuerpo de la respuesta de una URL como un flujo de bytes, de forma asíncrona.
+     * El CompletableFuture se completa en cuanto llegan las cabeceras; el cuerpo se lee del flujo a medida que llega.
+     * Se puede cancelar: una solicitud que aún espera su ficha del limitador no se envía y devuelve la ficha,
+     * una ya enviada se aborta, y una respuesta que llega después de cancelar se descarta sin leerla.
+     *
+     * @param url La URL de la API desde la cual se obtendrán los datos.
+     * @return Un CompletableFuture que se completa con el flujo de entrada de la respuesta.
+     */
+    public CompletableFuture<InputStream> obtenerFlujoAsync(String url) {
+        CompletableFuture<InputStream> resultado = new CompletableFuture<>();
+        solicitarAsync(url, resultado).whenComplete((flujo, error) -> {
+            if (error != null) {
+                resultado.completeExceptionally(desenvolver(error));
+            } else if (!resultado.complete(flujo)) {
+                descartar(flujo);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Cierra un flujo obtenido de este servicio sin leer el resto del cuerpo: la conexión se abandona en lugar
+     * de seguir descargando, y la respuesta no se publica en la caché.
+     *
+     * @param flujo El flujo que ya no se necesita.
+     */
+    public void descartar(InputStream flujo) {
+        cacheRespuestas.descartar(flujo instanceof FlujoAlCerrar envoltorio ? envoltorio.interior() : flujo);
+        cerrar(flujo);
+    }
+
+    /**
+     * Resuelve la solicitud asíncrona de obtenerFlujoAsync desde la caché, desde la solicitud en curso de otro
+     * hilo o desde la red.
+     *
+     * @param cancelacion El CompletableFuture entregado a quien llama; si se cancela, se dejan de enviar solicitudes.
+     */
+    private CompletableFuture<InputStream> solicitarAsync(String url, CompletableFuture<?> cancelacion) {
+        Optional<CacheRespuestasHttp.Entrada> almacenada = cacheRespuestas.buscar(url);
+        if (almacenada.isPresent()) {
+            InputStream desdeCache = servirDesdeCache(url, almacenada.get());
+            if (desdeCache != null) {
+                return CompletableFuture.completedFuture(desdeCache);
+            }
+        }
+
+        if (!cacheRespuestas.estaHabilitada()) {
+            return descargarAsync(url, almacenada, cancelacion);
+        }
+        String clave = CacheRespuestasHttp.normalizarUrl(url);
+        CompletableFuture<Void> senal = new CompletableFuture<>();
+        CompletableFuture<Void> lider = enVuelo.putIfAbsent(clave, senal);
+        if (lider != null) {
+            return lider.copy()
+                    .completeOnTimeout(null, tiempoLecturaMs, TimeUnit.MILLISECONDS)
+                    .handle((resultado, error) -> leerCompartida(url))
+                    .thenCompose(compartida -> compartida.map(CompletableFuture::completedFuture)
+                            .orElseGet(() -> descargarAsync(url, cacheRespuestas.buscar(url), cancelacion)));
+        }
+        return descargarAsync(url, almacenada, cancelacion).handle((flujo, error) -> {
+            if (error != null) {
+                liberar(clave, senal);
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return alCerrar(flujo, () -> liberar(clave, senal));
+        });
+    }
+
+    /**
+     * Realiza la solicitud a la API con reintentos, cobertura y cortocircuito (ver enviar).
+     *
+     * @param url        La URL de la solicitud.
+     * @param almacenada La entrada de la caché para la URL, si existe, para revalidarla o servirla si la API falla.
+     * @return El flujo con el cuerpo de la respuesta.
+     */
+    private InputStream descargar(String url, Optional<CacheRespuestasHttp.Entrada> almacenada) {
+        try {
+            return procesarRespuesta(url, almacenada, enviar(url, almacenada, null).get());
+        } catch (ExecutionException e) {
+            return recuperar(url, almacenada, e.getCause());
+        } catch (InterruptedException e) {
+            // Restaura el estado de interrupción y lanza una RuntimeException
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("La solicitud fue interrumpida", e);
+        }
+    }
+
+    /**
+     * Realiza la solicitud a la API de forma asíncrona, con reintentos, cobertura y cortocircuito (ver enviar).
+     *
+     * @param url        La URL de la solicitud.
+     * @param almacenada  La entrada de la caché para la URL, si existe, para revalidarla o servirla si la API falla.
+     * @param cancelacion Señal de cancelación de quien llama (ver enviar).
+     * @return Un CompletableFuture que se completa con el flujo de la respuesta.
+     */
+    private CompletableFuture<InputStream> descargarAsync(String url, Optional<CacheRespuestasHttp.Entrada> almacenada,
+                                                          CompletableFuture<?> cancelacion) {
+        return enviar(url, almacenada, cancelacion).handle((response, error) -> error == null
+                ? procesarRespuesta(url, almacenada, response)
+                : recuperar(url, almacenada, desenvolver(error)));
+    }
+
+    /**
+     * Resuelve una solicitud fallida: si el fallo es del servicio y hay una copia almacenada, se sirve
+     * aunque haya caducado; en otro caso se lanza el error.
+     */
+    private InputStream recuperar(String url, Optional<CacheRespuestasHttp.Entrada> almacenada, Throwable error) {
+        if (almacenada.isPresent() && (esFalloDelServicio(error) || error instanceof CircuitoAbiertoException)) {
+            log.warn("La API no respondió ({}); se sirve la respuesta almacenada de {}", error.getMessage(), url);
+            return cacheRespuestas.abrir(almacenada.get());
+        }
+        if (error instanceof IOException) {
             // Lanza una RuntimeException si ocurre un error de E/S
-            throw new RuntimeException("Error de E/S al obtener datos de la API", e);
+            throw new RuntimeException("Error de E/S al obtener datos de la API", error);
+        }
+        throw error instanceof RuntimeException runtime ? runtime : new RuntimeException(error);
+    }
+
+    /**
+     * Envía una solicitud a la API aplicando, de fuera hacia dentro:
+     * el cortocircuito, que la rechaza de inmediato si la API está caída;
+     * los reintentos con espera exponencial y variación aleatoria ante fallos transitorios;
+     * y la cobertura, que lanza una segunda solicitud si la primera tarda más que el percentil 95.
+     *
+     * @param url         La URL de la solicitud.
+     * @param almacenada  La entrada de la caché para la URL, si existe, para la revalidación condicional.
+     * @param cancelacion Un CompletableFuture cuya cancelación aborta la solicitud, o null si no puede cancelarse.
+     * @return Un CompletableFuture que se completa con una respuesta 2xx o 304.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> enviar(String url, Optional<CacheRespuestasHttp.Entrada> almacenada,
+                                                                CompletableFuture<?> cancelacion) {
+        if (!circuito.permitir()) {
+            return CompletableFuture.failedFuture(new CircuitoAbiertoException(url));
+        }
+        return enviarConReintentos(url, almacenada, cancelacion, 0);
+    }
+
+    /**
+     * Envía la solicitud y, si falla por un motivo transitorio, la reintenta tras una espera.
+     * La espera es la indicada por Retry-After o, si no la hay, un valor aleatorio entre 0 y
+     * espera-base * 2^intento, acotado por espera-maxima, para que los clientes no reintenten a la vez.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> enviarConReintentos(String url, Optional<CacheRespuestasHttp.Entrada> almacenada,
+                                                                             CompletableFuture<?> cancelacion, int intento) {
+        return enviarConCobertura(url, almacenada, cancelacion)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    Throwable causa = desenvolver(error);
+                    if (!esFalloDelServicio(causa) || intento >= maximoReintentos || !circuito.permitir()) {
+                        return CompletableFuture.<HttpResponse<InputStream>>failedFuture(causa);
+                    }
+                    long espera = calcularEspera(intento, causa);
+                    registroMetricas.counter("literalura.api.reintentos").increment();
+                    log.debug("Reintento {} de {} en {} ms: {}", intento + 1, url, espera, causa.getMessage());
+                    return CompletableFuture.runAsync(() -> {
+                            }, CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignorado -> enviarConReintentos(url, almacenada, cancelacion, intento + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Envía la solicitud y, si no ha respondido cuando se cumple el percentil 95 de las latencias recientes,
+     * envía una segunda idéntica; se usa la primera respuesta correcta y la otra se descarta al llegar.
+     * Solo se cubre cuando hay suficientes muestras para estimar el percentil.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> enviarConCobertura(String url, Optional<CacheRespuestasHttp.Entrada> almacenada,
+                                                                            CompletableFuture<?> cancelacion) {
+        CompletableFuture<HttpResponse<InputStream>> principal = intentar(url, almacenada, cancelacion);
+        if (!coberturaHabilitada || latencias.getCantidad() < muestrasMinimasCobertura) {
+            return principal;
+        }
+        long retardoMs = Math.max(retardoMinimoCoberturaMs, TimeUnit.NANOSECONDS.toMillis(latencias.percentil(95)));
+
+        CompletableFuture<HttpResponse<InputStream>> resultado = new CompletableFuture<>();
+        AtomicInteger pendientes = new AtomicInteger(1);
+        BiConsumer<HttpResponse<InputStream>, Throwable> alTerminar = (response, error) -> {
+            if (error == null) {
+                if (!resultado.complete(response)) {
+                    // Respuesta perdedora: se cierra para liberar la conexión
+                    cerrar(response.body());
+                }
+            } else if (pendientes.decrementAndGet() == 0) {
+                resultado.completeExceptionally(desenvolver(error));
+            }
+        };
+        principal.whenComplete(alTerminar);
+        CompletableFuture.delayedExecutor(retardoMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (resultado.isDone()) {
+                return;
+            }
+            pendientes.incrementAndGet();
+            registroMetricas.counter("literalura.api.coberturas").increment();
+            log.debug("{} no respondió en {} ms; se envía una solicitud de cobertura", url, retardoMs);
+            intentar(url, almacenada, cancelacion).whenComplete(alTerminar);
+        });
+        return resultado;
+    }
+
+    /**
+     * Envía una única solicitud, respetando el límite de tasa, y valida el código de estado.
+     * La latencia hasta recibir las cabeceras alimenta la estimación del percentil 95, y el resultado
+     * se informa al cortocircuito. Si quien llama cancela, la espera de la ficha o el envío se abortan
+     * y el intento falla con una CancellationException, que no cuenta para el cortocircuito.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> intentar(String url, Optional<CacheRespuestasHttp.Entrada> almacenada,
+                                                                  CompletableFuture<?> cancelacion) {
+        CompletableFuture<Void> ficha = limitador.adquirirAsync();
+        alCancelar(cancelacion, ficha);
+        return ficha
+                .thenCompose(ignorado -> {
+                    if (cancelacion != null && cancelacion.isCancelled()) {
+                        limitador.devolver();
+                        return CompletableFuture.<HttpResponse<InputStream>>failedFuture(new CancellationException("Solicitud cancelada: " + url));
+                    }
+                    long inicio = System.nanoTime();
+                    CompletableFuture<HttpResponse<InputStream>> envio =
+                            httpClient.sendAsync(crearSolicitud(url, almacenada), HttpResponse.BodyHandlers.ofInputStream());
+                    alCancelar(cancelacion, envio);
+                    return envio
+                            .whenComplete((response, error) -> registrarSolicitud(inicio, response, error))
+                            .thenApply(response -> {
+                                latencias.registrar(System.nanoTime() - inicio);
+                                return validarEstado(url, response);
+                            });
+                })
+                .whenComplete((response, error) -> {
+                    Throwable causa = error != null ? desenvolver(error) : null;
+                    if (causa instanceof CancellationException) {
+                        return;
+                    }
+                    if (causa != null && esFalloDelServicio(causa)) {
+                        circuito.registrarFallo();
+                    } else {
+                        circuito.registrarExito();
+                    }
+                });
+    }
+
+    /**
+     * Cancela una etapa de la solicitud cuando quien llama cancela la suya.
+     */
+    private static void alCancelar(CompletableFuture<?> cancelacion, CompletableFuture<?> etapa) {
+        if (cancelacion != null) {
+            cancelacion.whenComplete((resultado, error) -> {
+                if (cancelacion.isCancelled()) {
+                    etapa.cancel(true);
+                }
+            });
+        }
+    }
+
+    /**
+     * Registra la latencia de un intento hasta recibir las cabeceras, etiquetada con el código de estado
+     * o, si no hubo respuesta, con el tipo de error.
+     */
+    private void registrarSolicitud(long inicio, HttpResponse<InputStream> response, Throwable error) {
+        Timer.builder("literalura.api.solicitudes")
+                .description("Latencia de las solicitudes a la API hasta recibir las cabeceras")
+                .tag("estado", response != null ? String.valueOf(response.statusCode()) : desenvolver(error).getClass().getSimpleName())
+                .tag("resultado", (response != null ? Outcome.forStatus(response.statusCode()) : Outcome.UNKNOWN).name())
+                .register(registroMetricas)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Comprueba el código de estado de una respuesta. Las respuestas 2xx y 304 se devuelven;
+     * el resto se cierra y se convierte en una RespuestaInesperadaException.
+     */
+    private HttpResponse<InputStream> validarEstado(String url, HttpResponse<InputStream> response) {
+        int estado = response.statusCode();
+        if ((estado >= 200 && estado < 300) || estado == 304) {
+            return response;
+        }
+        cerrar(response.body());
+        Duration reintentarTras = response.headers().firstValue("Retry-After")
+                .filter(valor -> valor.chars().allMatch(Character::isDigit))
+                .map(valor -> Duration.ofSeconds(Long.parseLong(valor)))
+                .orElse(null);
+        throw new RespuestaInesperadaException(url, estado, reintentarTras);
+    }
+
+    /**
+     * Calcula la espera antes de un reintento, en milisegundos.
+     */
+    private long calcularEspera(int intento, Throwable causa) {
+        if (causa instanceof RespuestaInesperadaException respuesta && respuesta.getReintentarTras() != null) {
+            return Math.min(respuesta.getReintentarTras().toMillis(), esperaMaximaMs);
+        }
+        long tope = Math.min(esperaMaximaMs, esperaBaseMs << Math.min(intento, 20));
+        return ThreadLocalRandom.current().nextLong(tope + 1);
+    }
+
+    /**
+     * Indica si un error se debe a un fallo del servicio (de red o una respuesta 429/5xx),
+     * que cuenta para el cortocircuito y puede reintentarse.
+     */
+    private static boolean esFalloDelServicio(Throwable error) {
+        return error instanceof IOException
+                || (error instanceof RespuestaInesperadaException respuesta && respuesta.esReintentable());
+    }
+
+    /**
+     * Obtiene la causa original de un error propagado por un CompletableFuture.
+     */
+    private static Throwable desenvolver(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Espera a que termine la solicitud en curso de otro hilo para la misma URL, como máximo el tiempo de lectura.
+     * Si la espera se agota o la solicitud falla, quien llama hará la suya.
+     */
+    private void esperar(CompletableFuture<Void> lider) {
+        try {
+            lider.get(tiempoLecturaMs, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
-            // Lanza una RuntimeException si la solicitud es interrumpida
+            Thread.currentThread().interrupt();
             throw new RuntimeException("La solicitud fue interrumpida", e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("La solicitud compartida no terminó a tiempo; se repite: {}", e.getMessage());
         }
+    }
+
+    /**
+     * Lee de la caché la respuesta que dejó la solicitud en curso de otro hilo.
+     *
+     * @return El flujo almacenado, o Optional.empty() si la respuesta no se pudo almacenar.
+     */
+    private Optional<InputStream> leerCompartida(String url) {
+        return cacheRespuestas.buscar(url).filter(cacheRespuestas::esFresca).map(cacheRespuestas::abrir);
+    }
 
-        // Obtiene el cuerpo de la respuesta en formato de cadena de texto
-        String json = response.body();
-        return json;
+    /**
+     * Marca como terminada la solicitud en curso de una URL y avisa a quienes la esperan.
+     */
+    private void liberar(String clave, CompletableFuture<Void> senal) {
+        enVuelo.remove(clave, senal);
+        senal.complete(null);
+    }
+
+    /**
+     * Sirve una respuesta desde la caché si todavía es utilizable.
+     * Las entradas caducadas dentro del margen de obsolescencia se sirven igualmente y se revalidan en segundo plano.
+     *
+     * @return El flujo almacenado, o null si la entrada debe revalidarse antes de usarse.
+     */
+    private InputStream servirDesdeCache(String url, CacheRespuestasHttp.Entrada entrada) {
+        if (cacheRespuestas.esFresca(entrada)) {
+            return cacheRespuestas.abrir(entrada);
+        }
+        if (cacheRespuestas.puedeServirseObsoleta(entrada)) {
+            revalidarEnSegundoPlano(url, entrada);
+            return cacheRespuestas.abrir(entrada);
+        }
+        return null;
+    }
+
+    /**
+     * Revalida una entrada caducada sin bloquear a quien la solicitó.
+     * Solo se lanza una revalidación a la vez por URL.
+     */
+    private void revalidarEnSegundoPlano(String url, CacheRespuestasHttp.Entrada entrada) {
+        String clave = CacheRespuestasHttp.normalizarUrl(url);
+        if (revalidaciones.putIfAbsent(clave, Boolean.TRUE) != null) {
+            return;
+        }
+        enviar(url, Optional.of(entrada), null)
+                .thenAccept(response -> {
+                    // Leer el cuerpo completo publica la nueva entrada en la caché
+                    try (InputStream flujo = procesarRespuesta(url, Optional.of(entrada), response)) {
+                        flujo.transferTo(OutputStream.nullOutputStream());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                })
+                .whenComplete((resultado, error) -> {
+                    revalidaciones.remove(clave);
+                    if (error != null) {
+                        log.debug("No se pudo revalidar {}: {}", url, error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Interpreta la respuesta de la API: una respuesta 304 renueva la entrada almacenada y una 200
+     * se almacena en la caché mientras quien llama la lee.
+     *
+     * @return El flujo con el cuerpo que debe entregarse a quien llama.
+     */
+    private InputStream procesarRespuesta(String url, Optional<CacheRespuestasHttp.Entrada> almacenada, HttpResponse<InputStream> response) {
+        if (response.statusCode() == 304 && almacenada.isPresent()) {
+            cerrar(response.body());
+            return cacheRespuestas.abrir(cacheRespuestas.renovar(almacenada.get(), response.headers()));
+        }
+        InputStream cuerpo = contarBytes(response.body());
+        if (response.statusCode() == 200 && cacheRespuestas.esAlmacenable(response.headers())) {
+            return cacheRespuestas.almacenar(url, response.headers(), cuerpo);
+        }
+        return cuerpo;
+    }
+
+    /**
+     * Construye una solicitud HTTP GET con el tiempo de lectura configurado y, si hay una copia
+     * almacenada, con las cabeceras de revalidación condicional.
+     *
+     * @param url        La URL de la solicitud.
+     * @param almacenada La entrada de la caché para la URL, si existe.
+     * @return La solicitud HTTP construida.
+     */
+    private HttpRequest crearSolicitud(String url, Optional<CacheRespuestasHttp.Entrada> almacenada) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofMillis(tiempoLecturaMs))
+                .header("Accept", "application/json")
+                .GET();
+        almacenada.ifPresent(entrada -> {
+            if (entrada.etag() != null) {
+                builder.header("If-None-Match", entrada.etag());
+            }
+            if (entrada.ultimaModificacion() != null) {
+                builder.header("If-Modified-Since", entrada.ultimaModificacion());
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Lee un flujo completo como texto UTF-8 y lo cierra.
+     */
+    private String leerTexto(InputStream flujo) {
+        try (InputStream entrada = flujo) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error de E/S al leer la respuesta de la API", e);
+        }
+    }
+
+    /**
+     * Envuelve un flujo para ejecutar una acción una sola vez cuando se cierra.
+     */
+    private static InputStream alCerrar(InputStream flujo, Runnable accion) {
+        return new FlujoAlCerrar(flujo, accion);
+    }
+
+    /**
+     * Flujo que ejecuta una acción una sola vez cuando se cierra.
+     */
+    private static final class FlujoAlCerrar extends FilterInputStream {
+
+        private final Runnable accion;
+        private final AtomicBoolean cerrado = new AtomicBoolean();
+
+        FlujoAlCerrar(InputStream flujo, Runnable accion) {
+            super(flujo);
+            this.accion = accion;
+        }
+
+        InputStream interior() {
+            return in;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (cerrado.compareAndSet(false, true)) {
+                    accion.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Envuelve el cuerpo de una respuesta para registrar, al cerrarlo, los bytes leídos de la red.
+     */
+    private InputStream contarBytes(InputStream flujo) {
+        DistributionSummary tamano = DistributionSummary.builder("literalura.api.respuestas.tamano")
+                .description("Bytes recibidos en el cuerpo de las respuestas de la API")
+                .baseUnit("bytes")
+                .register(registroMetricas);
+        return new FlujoContado(flujo, tamano::record);
+    }
+
+    private static void cerrar(InputStream flujo) {
+        try {
+            flujo.close();
+        } catch (IOException e) {
+            // El cuerpo de una respuesta 304 está vacío; no hay nada que recuperar
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,26 @@
 package com.alura.literalura.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Servicio para convertir datos JSON a objetos DTO.
  * Esta clase implementa la interfaz IConvierteDatos y proporciona métodos para deserializar JSON en objetos Java.
+ * El tiempo de cada deserialización se registra en la métrica literalura.json.deserializacion, por tipo y origen.
  */
 @Component
 public class ConvierteDatos implements IConvierteDatos {
@@ -14,8 +28,32 @@ public class ConvierteDatos implements IConvierteDatos {
     /**
      * Instancia de ObjectMapper para deserializar JSON.
      * ObjectMapper es una clase de la biblioteca Jackson que se utiliza para convertir JSON en objetos Java.
+     * Las propiedades desconocidas se omiten sin construir sus subárboles.
+     */
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Registro de métricas donde se publican los tiempos de deserialización.
+     */
+    private final MeterRegistry registroMetricas;
+
+    /**
+     * Crea el conversor con un registro de métricas propio, para usarlo fuera del contexto de Spring.
      */
-    private ObjectMapper objectMapper = new ObjectMapper();
+    public ConvierteDatos() {
+        this(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Crea el conversor publicando sus métricas en el registro de la aplicación.
+     *
+     * @param registroMetricas El registro de métricas de Micrometer.
+     */
+    @Autowired
+    public ConvierteDatos(MeterRegistry registroMetricas) {
+        this.registroMetricas = registroMetricas;
+    }
 
     /**
      * Convierte una cadena de texto JSON en un objeto de la clase especificada.
@@ -28,12 +66,116 @@ public class ConvierteDatos implements IConvierteDatos {
      */
     @Override
     public <T> T obtenerDatos(String json, Class<T> clase) {
+        long inicio = System.nanoTime();
         try {
             // Deserializa el JSON en un objeto de la clase especificada
             return objectMapper.readValue(json, clase);
         } catch (JsonProcessingException e) {
             // Lanza una RuntimeException si ocurre un error de procesamiento de JSON
             throw new RuntimeException("Error al deserializar el JSON", e);
+        } finally {
+            registrarTiempo(clase, "cadena", inicio);
+        }
+    }
+
+    /**
+     * Convierte un flujo de bytes JSON en un objeto de la clase especificada.
+     * Jackson lee el flujo de forma incremental, sin copiar el cuerpo completo en una cadena intermedia.
+     * El flujo se cierra al terminar la lectura. El tiempo registrado incluye la espera de los datos del flujo.
+     *
+     * @param json  El flujo de entrada con el JSON que se va a deserializar.
+     * @param clase La clase a la que se va a convertir el JSON.
+     * @param <T>   El tipo de objeto que se va a retornar.
+     * @return Un objeto de la clase especificada que contiene los datos deserializados del JSON.
+     * @throws RuntimeException Si ocurre un error de lectura o de deserialización del JSON.
+     */
+    @Override
+    public <T> T obtenerDatos(InputStream json, Class<T> clase) {
+        long inicio = System.nanoTime();
+        try (InputStream flujo = json) {
+            // Deserializa directamente desde el flujo de entrada
+            return objectMapper.readValue(flujo, clase);
+        } catch (IOException e) {
+            // Lanza una RuntimeException si ocurre un error de lectura o de procesamiento de JSON
+            throw new RuntimeException("Error al deserializar el JSON", e);
+        } finally {
+            registrarTiempo(clase, "flujo", inicio);
+        }
+    }
+
+    /**
+     * Convierte un buffer de bytes JSON en un objeto de la clase especificada.
+     * Se leen los bytes entre la posición y el límite del buffer; al terminar, la posición queda en el límite,
+     * como tras cualquier otra lectura del buffer.
+     *
+     * @param json  El buffer con el JSON que se va a deserializar.
+     * @param clase La clase a la que se va a convertir el JSON.
+     * @param <T>   El tipo de objeto que se va a retornar.
+     * @return Un objeto de la clase especificada que contiene los datos deserializados del JSON.
+     * @throws RuntimeException Si ocurre un error durante la deserialización del JSON.
+     */
+    @Override
+    public <T> T obtenerDatos(ByteBuffer json, Class<T> clase) {
+        long inicio = System.nanoTime();
+        try {
+            T datos;
+            if (json.hasArray()) {
+                // Lee directamente sobre el arreglo del buffer, sin copiarlo
+                datos = objectMapper.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining(), clase);
+            } else {
+                // Se lee una vista del buffer para que un error de análisis no deje la posición a medias
+                datos = objectMapper.readValue(new ByteBufferBackedInputStream(json.duplicate()), clase);
+            }
+            json.position(json.limit());
+            return datos;
+        } catch (IOException e) {
+            // Lanza una RuntimeException si ocurre un error de procesamiento de JSON
+            throw new RuntimeException("Error al deserializar el JSON", e);
+        } finally {
+            registrarTiempo(clase, "buffer", inicio);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lee el valor textual de un campo de primer nivel sin deserializar el resto del documento.
+     * Los campos anteriores se saltan token a token y la lectura se detiene en cuanto se encuentra el campo.
+     *
+     * @param json  El documento JSON en bytes.
+     * @param campo El nombre del campo de primer nivel a leer.
+     * @return El valor del campo como texto, o null si no existe o es nulo.
+     * @throws RuntimeException Si el documento no es un objeto JSON válido.
+     */
+    @Override
+    public String obtenerCampo(byte[] json, String campo) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("El JSON no es un objeto");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String nombre = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if (campo.equals(nombre)) {
+                    return valor == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                }
+                // Salta el valor completo (objetos y arreglos incluidos) sin construirlo
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // Lanza una RuntimeException si ocurre un error de procesamiento de JSON
+            throw new RuntimeException("Error al leer el campo '" + campo + "' del JSON", e);
+        }
+    }
+
+    /**
+     * Registra el tiempo de una deserialización, etiquetado con la clase de destino y el origen de los datos.
+     */
+    private void registrarTiempo(Class<?> clase, String origen, long inicio) {
+        Timer.builder("literalura.json.deserializacion")
+                .description("Tiempo de deserialización de las respuestas JSON")
+                .tag("tipo", clase.getSimpleName())
+                .tag("origen", origen)
+                .register(registroMetricas)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+}
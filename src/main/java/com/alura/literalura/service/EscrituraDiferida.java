@@ -0,0 +1,436 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.dto.LibroRechazado;
+import com.alura.literalura.dto.ResumenGuardado;
+import com.alura.literalura.util.Normalizador;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Escritura diferida de los libros registrados desde la búsqueda por título.
+ * Quien registra un libro solo lo anota en un diario en disco y lo deja en una cola; un único hilo escritor
+ * toma de la cola hasta literalura.escritura-diferida.tamano-lote libros a la vez y los persiste con la misma
+ * inserción por lotes que la importación del catálogo. Así, la respuesta al usuario no espera a la base de datos.
+ * El diario (una línea JSON por libro) garantiza que un libro aceptado no se pierde si la aplicación termina
+ * antes de persistirlo: al arrancar se vuelven a encolar sus líneas, y como la inserción es idempotente por
+ * identificador de Gutendex, repetir un libro ya persistido no lo duplica. El diario se vacía cada vez que
+ * la cola queda vacía. Al detener la aplicación se persisten los libros pendientes antes de cerrar.
+ * Solo se reintentan los errores transitorios de la base de datos (conexión perdida, bloqueos, tiempos de espera);
+ * un libro que falla por cualquier otro motivo, o que la inserción omite porque su título ya pertenece a otro
+ * libro, se anota en el archivo de rechazados (una línea JSON con el libro y el motivo) y el escritor sigue con
+ * los demás. El menú permite consultar ese archivo.
+ */
+@Service
+public class EscrituraDiferida {
+
+    private static final Logger log = LoggerFactory.getLogger(EscrituraDiferida.class);
+
+    @Autowired
+    private ImportadorCatalogo importadorCatalogo;
+
+    @Autowired
+    private IConvierteDatos convierteDatos;
+
+    @Autowired
+    private LibroService libroService;
+
+    @Autowired
+    private MeterRegistry registroMetricas;
+
+    /**
+     * Ruta del diario con los libros aceptados pendientes de persistir.
+     * Por defecto está en literalura.escritura-diferida.directorio, igual que el archivo de rechazados.
+     */
+    @Value("${literalura.escritura-diferida.diario:${literalura.escritura-diferida.directorio:${user.home}/.literalura}/escritura-diferida.diario}")
+    private String rutaDiario;
+
+    /**
+     * Ruta del archivo con los libros aceptados que no se pudieron persistir.
+     */
+    @Value("${literalura.escritura-diferida.rechazados:${literalura.escritura-diferida.directorio:${user.home}/.literalura}/escritura-diferida.rechazados}")
+    private String rutaRechazados;
+
+    /**
+     * Si es true, cada libro se fuerza a disco antes de aceptarlo; si es false, una caída del sistema
+     * operativo (no de la aplicación) puede perder los últimos libros aceptados.
+     */
+    @Value("${literalura.escritura-diferida.sincronizar-disco:true}")
+    private boolean sincronizarDisco;
+
+    /**
+     * Número máximo de libros que se persisten en cada transacción.
+     */
+    @Value("${literalura.escritura-diferida.tamano-lote:50}")
+    private int tamanoLote;
+
+    /**
+     * Tiempo que espera el escritor tras un error transitorio de la base de datos antes de reintentar el lote.
+     */
+    @Value("${literalura.escritura-diferida.espera-reintento:5s}")
+    private Duration esperaReintento;
+
+    /**
+     * Tiempo máximo que se espera al detener la aplicación para persistir los libros pendientes.
+     */
+    @Value("${literalura.escritura-diferida.espera-cierre:30s}")
+    private Duration esperaCierre;
+
+    /**
+     * Serializa los libros en el diario con los mismos nombres de campo que la API.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<LibroDTO> cola = new LinkedBlockingQueue<>();
+
+    /**
+     * Títulos normalizados de los libros aceptados que aún no se han persistido.
+     */
+    private final Set<String> titulosPendientes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Cerrojo que hace atómicas la anotación en el diario junto con la entrada en la cola, y la
+     * comprobación de que la cola está vacía junto con el vaciado del diario.
+     */
+    private final ReentrantLock cerrojoDiario = new ReentrantLock();
+
+    private FileChannel diario;
+
+    private FileChannel rechazados;
+
+    /**
+     * Número de libros anotados en el archivo de rechazados, incluidos los de ejecuciones anteriores.
+     */
+    private final AtomicLong totalRechazados = new AtomicLong();
+
+    private Thread escritor;
+
+    private volatile boolean cerrando;
+
+    /**
+     * Abre el diario y el archivo de rechazados, vuelve a encolar los libros que quedaron pendientes en la
+     * ejecución anterior e inicia el hilo escritor.
+     *
+     * @throws UncheckedIOException Si no se puede leer o abrir el diario o el archivo de rechazados.
+     */
+    @PostConstruct
+    public void iniciar() {
+        Path ruta = Paths.get(rutaDiario);
+        try {
+            Files.createDirectories(ruta.toAbsolutePath().getParent());
+            if (Files.exists(ruta)) {
+                for (String linea : Files.readAllLines(ruta, StandardCharsets.UTF_8)) {
+                    if (!linea.isBlank()) {
+                        LibroDTO libroDTO = convierteDatos.obtenerDatos(linea, LibroDTO.class);
+                        titulosPendientes.add(Normalizador.normalizarTitulo(libroDTO.getTitulo()));
+                        cola.add(libroDTO);
+                    }
+                }
+                if (!cola.isEmpty()) {
+                    log.info("Se recuperaron {} libros pendientes de persistir del diario {}", cola.size(), ruta);
+                }
+            }
+            diario = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario de escritura diferida " + ruta, e);
+        }
+        Path rutaRechazos = Paths.get(rutaRechazados);
+        try {
+            Files.createDirectories(rutaRechazos.toAbsolutePath().getParent());
+            if (Files.exists(rutaRechazos)) {
+                try (Stream<String> lineas = Files.lines(rutaRechazos, StandardCharsets.UTF_8)) {
+                    totalRechazados.set(lineas.filter(linea -> !linea.isBlank()).count());
+                }
+            }
+            rechazados = FileChannel.open(rutaRechazos, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de rechazados " + rutaRechazos, e);
+        }
+        Gauge.builder("literalura.escritura-diferida.pendientes", cola, BlockingQueue::size)
+                .description("Libros aceptados pendientes de persistir")
+                .register(registroMetricas);
+        escritor = new Thread(this::escribir, "escritura-diferida");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Acepta un libro para persistirlo en segundo plano.
+     * Al volver, el libro ya está anotado en el diario.
+     *
+     * @param libroDTO El libro recibido de la API.
+     * @throws IllegalStateException Si la aplicación se está deteniendo.
+     * @throws UncheckedIOException  Si no se puede escribir en el diario.
+     */
+    public void encolar(LibroDTO libroDTO) {
+        byte[] linea;
+        try {
+            linea = (objectMapper.writeValueAsString(libroDTO) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar el libro para el diario", e);
+        }
+        cerrojoDiario.lock();
+        try {
+            if (cerrando) {
+                throw new IllegalStateException("La escritura diferida se está deteniendo");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(linea);
+            while (buffer.hasRemaining()) {
+                diario.write(buffer);
+            }
+            if (sincronizarDisco) {
+                diario.force(false);
+            }
+            titulosPendientes.add(Normalizador.normalizarTitulo(libroDTO.getTitulo()));
+            cola.add(libroDTO);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el diario de escritura diferida", e);
+        } finally {
+            cerrojoDiario.unlock();
+        }
+    }
+
+    /**
+     * Indica si un título está aceptado y pendiente de persistir, es decir, si ya se registró aunque
+     * todavía no esté en la base de datos.
+     *
+     * @param titulo El título del libro.
+     * @return true si hay un libro pendiente con ese título normalizado.
+     */
+    public boolean estaPendiente(String titulo) {
+        return titulosPendientes.contains(Normalizador.normalizarTitulo(titulo));
+    }
+
+    /**
+     * Obtiene el número de libros que no se pudieron persistir y se anotaron en el archivo de rechazados.
+     *
+     * @return El número de libros rechazados, incluidos los de ejecuciones anteriores.
+     */
+    public long contarRechazados() {
+        return totalRechazados.get();
+    }
+
+    /**
+     * Lee el archivo de rechazados.
+     *
+     * @return Los libros rechazados, del más antiguo al más reciente.
+     * @throws UncheckedIOException Si no se puede leer el archivo.
+     */
+    public List<LibroRechazado> listarRechazados() {
+        Path ruta = Paths.get(rutaRechazados);
+        if (!Files.exists(ruta)) {
+            return List.of();
+        }
+        try (Stream<String> lineas = Files.lines(ruta, StandardCharsets.UTF_8)) {
+            return lineas.filter(linea -> !linea.isBlank())
+                    .map(linea -> convierteDatos.obtenerDatos(linea, LibroRechazado.class))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de rechazados " + ruta, e);
+        }
+    }
+
+    /**
+     * Deja de aceptar libros y espera, como máximo literalura.escritura-diferida.espera-cierre, a que el
+     * escritor persista los pendientes. Los que no se alcancen a persistir quedan en el diario.
+     */
+    @PreDestroy
+    public void detener() {
+        cerrojoDiario.lock();
+        try {
+            cerrando = true;
+        } finally {
+            cerrojoDiario.unlock();
+        }
+        try {
+            escritor.join(esperaCierre.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (escritor.isAlive()) {
+            escritor.interrupt();
+            log.warn("Quedan {} libros pendientes en el diario; se persistirán en el próximo arranque", cola.size());
+        }
+        try {
+            diario.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el diario de escritura diferida: {}", e.getMessage());
+        }
+        try {
+            rechazados.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el archivo de rechazados: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: toma los libros en lotes y los persiste hasta que la aplicación se detiene
+     * y la cola queda vacía.
+     */
+    private void escribir() {
+        List<LibroDTO> lote = new ArrayList<>(tamanoLote);
+        try {
+            while (!cerrando || !cola.isEmpty()) {
+                LibroDTO primero = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, tamanoLote - 1);
+                persistir(lote);
+                lote.forEach(libroDTO -> titulosPendientes.remove(Normalizador.normalizarTitulo(libroDTO.getTitulo())));
+                lote.clear();
+                vaciarDiarioSiNoHayPendientes();
+            }
+        } catch (InterruptedException e) {
+            // La aplicación se detiene sin esperar más; los libros sin persistir siguen en el diario
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Persiste un lote, reintentándolo mientras el error de la base de datos sea transitorio.
+     * Cualquier otro error (una restricción violada, datos que la base de datos no admite) no se arregla
+     * reintentando: el lote se persiste libro a libro para aislar al culpable, y el libro que sigue fallando
+     * se anota en el archivo de rechazados, para que no bloquee a los demás.
+     *
+     * @throws InterruptedException Si la aplicación se detiene mientras se espera para reintentar.
+     */
+    private void persistir(List<LibroDTO> lote) throws InterruptedException {
+        while (true) {
+            try {
+                ResumenGuardado resumen = importadorCatalogo.persistir(lote);
+                log.debug("Escritura diferida: {} libros insertados, {} actualizados, {} omitidos",
+                        resumen.insertados(), resumen.actualizados(), resumen.omitidos());
+                if (resumen.omitidos() > 0) {
+                    rechazarNoGuardados(lote);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (!esTransitorio(e)) {
+                    if (lote.size() == 1) {
+                        rechazar(lote.get(0), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                        return;
+                    }
+                    for (LibroDTO libroDTO : lote) {
+                        persistir(List.of(libroDTO));
+                    }
+                    return;
+                }
+                if (cerrando) {
+                    throw new InterruptedException("Escritura diferida detenida con la base de datos no disponible");
+                }
+                log.warn("No se pudieron persistir {} libros; se reintentará en {} s: {}",
+                        lote.size(), esperaReintento.toSeconds(), e.getMessage());
+                Thread.sleep(esperaReintento.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Indica si un error de la base de datos puede desaparecer al reintentar la misma operación.
+     *
+     * @param e El error.
+     * @return true si el error es transitorio o la base de datos no está disponible.
+     */
+    private static boolean esTransitorio(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Anota en el archivo de rechazados los libros de un lote que no quedaron registrados.
+     * La inserción omite sin error los libros sin cambios, los repetidos y los que tienen un título que ya
+     * pertenece a otro libro; solo estos últimos (y los que no tienen título) faltan en la base de datos.
+     *
+     * @param lote El lote recién persistido.
+     */
+    private void rechazarNoGuardados(List<LibroDTO> lote) {
+        Set<Integer> registrados = libroService.obtenerGutendexIdsRegistrados(lote.stream().map(LibroDTO::getId).toList());
+        for (LibroDTO libroDTO : lote) {
+            if (!registrados.contains(libroDTO.getId())) {
+                rechazar(libroDTO, "Se omitió: el título ya pertenece a otro libro registrado o el libro no tiene título");
+            }
+        }
+    }
+
+    /**
+     * Anota un libro que no se pudo persistir en el archivo de rechazados.
+     * Si tampoco se puede escribir ahí, el libro solo queda en el registro de la aplicación.
+     *
+     * @param libroDTO El libro.
+     * @param motivo   El motivo por el que no se persistió.
+     */
+    private void rechazar(LibroDTO libroDTO, String motivo) {
+        log.warn("Se rechaza el libro '{}' y se anota en {}: {}", libroDTO.getTitulo(), rutaRechazados, motivo);
+        try {
+            LibroRechazado rechazado = new LibroRechazado(Instant.now().toString(), motivo, libroDTO);
+            ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(rechazado) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                rechazados.write(buffer);
+            }
+            if (sincronizarDisco) {
+                rechazados.force(false);
+            }
+            totalRechazados.incrementAndGet();
+        } catch (IOException ex) {
+            log.error("No se pudo anotar en el archivo de rechazados el libro '{}'", libroDTO.getTitulo(), ex);
+        }
+    }
+
+    /**
+     * Vacía el diario si todos los libros anotados ya se persistieron.
+     * Con el cerrojo tomado no se pueden anotar libros nuevos, y los que el escritor ya tomó de la cola
+     * están persistidos, así que una cola vacía implica que ninguna línea del diario está pendiente.
+     */
+    private void vaciarDiarioSiNoHayPendientes() {
+        cerrojoDiario.lock();
+        try {
+            if (cola.isEmpty()) {
+                diario.truncate(0);
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo vaciar el diario de escritura diferida: {}", e.getMessage());
+        } finally {
+            cerrojoDiario.unlock();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.EstadisticasIdioma;
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.repository.LibroRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking en memoria de los libros más descargados y estadísticas de descargas por idioma.
+ * Por cada idioma, y para el conjunto de todos los libros, se guardan solo los literalura.ranking.tamano libros
+ * más descargados en un conjunto ordenado; por cada idioma se mantienen además la cantidad de libros, la suma
+ * de sus descargas y el mínimo y el máximo. Todo se actualiza de forma incremental cuando se crean, modifican
+ * o eliminan libros, y una consulta solo recorre los elementos que devuelve.
+ * Cuando una eliminación deja un ranking sin saber qué libro ocupa el último puesto, o deja desconocido el
+ * mínimo o el máximo de un idioma, el dato se marca como incompleto y se vuelve a leer de la base de datos
+ * en la siguiente consulta. Los libros sin idioma no se incluyen.
+ * Se carga al arrancar la aplicación; los rankings por idioma se leen la primera vez que se consultan.
+ */
+@Component
+public class EstadisticasDescargas {
+
+    /**
+     * Orden de los rankings: más descargas primero y, a igualdad, el libro registrado más recientemente.
+     * Coincide con el de las consultas del repositorio.
+     */
+    private static final Comparator<LibroResumen> ORDEN = (a, b) -> {
+        int porDescargas = Integer.compare(b.numeroDescargas(), a.numeroDescargas());
+        return porDescargas != 0 ? porDescargas : Long.compare(b.id(), a.id());
+    };
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    /**
+     * Número de libros que se guarda en cada ranking; las consultas de más libros se resuelven en la base de datos.
+     */
+    @Value("${literalura.ranking.tamano:100}")
+    private int tamano;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    /**
+     * Ranking de todos los libros.
+     */
+    private final Ranking general = new Ranking();
+
+    /**
+     * Estadísticas y ranking de cada idioma.
+     */
+    private final Map<String, Idioma> idiomas = new HashMap<>();
+
+    /**
+     * Número total de libros con idioma.
+     */
+    private long totalLibros;
+
+    private volatile boolean cargado;
+
+    /**
+     * Los libros más descargados de un conjunto, hasta `tamano` libros.
+     * Si está completo, contiene exactamente los primeros libros del conjunto según ORDEN.
+     */
+    private final class Ranking {
+
+        private final TreeSet<LibroResumen> mejores = new TreeSet<>(ORDEN);
+        private final Map<Long, LibroResumen> miembros = new HashMap<>();
+        private boolean completo;
+
+        void cargar(List<LibroResumen> libros) {
+            mejores.clear();
+            miembros.clear();
+            libros.forEach(this::agregar);
+            completo = true;
+        }
+
+        void agregar(LibroResumen libro) {
+            if (mejores.size() < tamano) {
+                mejores.add(libro);
+                miembros.put(libro.id(), libro);
+            } else if (ORDEN.compare(libro, mejores.last()) < 0) {
+                mejores.add(libro);
+                miembros.put(libro.id(), libro);
+                miembros.remove(mejores.pollLast().id());
+            }
+        }
+
+        /**
+         * @param restantes El número de libros del conjunto después de quitar este.
+         */
+        void quitar(LibroResumen libro, long restantes) {
+            LibroResumen actual = miembros.remove(libro.id());
+            if (actual != null) {
+                mejores.remove(actual);
+                // El puesto liberado corresponde a un libro que no está en memoria
+                if (mejores.size() < restantes) {
+                    completo = false;
+                }
+            }
+        }
+
+        /**
+         * Sustituye un libro del conjunto por su versión actualizada.
+         * Si el libro ya estaba en el ranking y no baja de puesto, el ranking sigue completo.
+         */
+        void reemplazar(LibroResumen anterior, LibroResumen nuevo, long cantidad) {
+            LibroResumen actual = miembros.get(anterior.id());
+            if (actual != null && ORDEN.compare(nuevo, actual) <= 0) {
+                mejores.remove(actual);
+                mejores.add(nuevo);
+                miembros.put(nuevo.id(), nuevo);
+            } else {
+                quitar(anterior, cantidad - 1);
+                agregar(nuevo);
+            }
+        }
+
+        List<LibroResumen> primeros(int cantidad) {
+            List<LibroResumen> libros = new ArrayList<>(Math.min(cantidad, mejores.size()));
+            Iterator<LibroResumen> iterador = mejores.iterator();
+            while (libros.size() < cantidad && iterador.hasNext()) {
+                libros.add(iterador.next());
+            }
+            return libros;
+        }
+    }
+
+    /**
+     * Estadísticas y ranking de un idioma.
+     */
+    private final class Idioma {
+
+        private final Ranking ranking = new Ranking();
+        private long cantidad;
+        private long suma;
+        private int minimo;
+        private int maximo;
+        private boolean extremosExactos = true;
+
+        void agregar(int descargas) {
+            cantidad++;
+            suma += descargas;
+            if (cantidad == 1) {
+                minimo = descargas;
+                maximo = descargas;
+                extremosExactos = true;
+            } else {
+                minimo = Math.min(minimo, descargas);
+                maximo = Math.max(maximo, descargas);
+            }
+        }
+
+        void quitar(int descargas) {
+            cantidad--;
+            suma -= descargas;
+            if (descargas == minimo || descargas == maximo) {
+                extremosExactos = false;
+            }
+        }
+
+        EstadisticasIdioma estadisticas(String codigo) {
+            return new EstadisticasIdioma(codigo, cantidad, minimo, maximo, (double) suma / cantidad);
+        }
+    }
+
+    /**
+     * Vuelve a cargar las estadísticas y el ranking general desde la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        cerrojo.writeLock().lock();
+        try {
+            cargar();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lista los libros más descargados.
+     *
+     * @param cantidad El número de libros a listar.
+     * @return Las proyecciones de los libros, de mayor a menor número de descargas.
+     */
+    public List<LibroResumen> masDescargados(int cantidad) {
+        if (cantidad > tamano) {
+            return libroRepository.findMasDescargados(PageRequest.of(0, cantidad));
+        }
+        cerrojo.readLock().lock();
+        try {
+            if (cargado && general.completo) {
+                return general.primeros(cantidad);
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        cerrojo.writeLock().lock();
+        try {
+            cargarSiEsNecesario();
+            if (!general.completo) {
+                general.cargar(libroRepository.findMasDescargados(PageRequest.of(0, tamano)));
+            }
+            return general.primeros(cantidad);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lista los libros más descargados de un idioma.
+     *
+     * @param idioma   El código del idioma.
+     * @param cantidad El número de libros a listar.
+     * @return Las proyecciones de los libros, de mayor a menor número de descargas.
+     */
+    public List<LibroResumen> masDescargados(String idioma, int cantidad) {
+        if (cantidad > tamano) {
+            return libroRepository.findMasDescargadosPorIdioma(idioma, PageRequest.of(0, cantidad));
+        }
+        cerrojo.readLock().lock();
+        try {
+            if (cargado) {
+                Idioma estadisticas = idiomas.get(idioma);
+                if (estadisticas == null) {
+                    return List.of();
+                }
+                if (estadisticas.ranking.completo) {
+                    return estadisticas.ranking.primeros(cantidad);
+                }
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        cerrojo.writeLock().lock();
+        try {
+            cargarSiEsNecesario();
+            Idioma estadisticas = idiomas.get(idioma);
+            if (estadisticas == null) {
+                return List.of();
+            }
+            if (!estadisticas.ranking.completo) {
+                estadisticas.ranking.cargar(libroRepository.findMasDescargadosPorIdioma(idioma, PageRequest.of(0, tamano)));
+            }
+            return estadisticas.ranking.primeros(cantidad);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas de descargas de cada idioma.
+     *
+     * @return Las estadísticas, del idioma con más libros al que tiene menos.
+     */
+    public List<EstadisticasIdioma> estadisticasPorIdioma() {
+        cerrojo.readLock().lock();
+        try {
+            if (cargado && idiomas.values().stream().allMatch(idioma -> idioma.extremosExactos)) {
+                return listarEstadisticas();
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        cerrojo.writeLock().lock();
+        try {
+            cargarSiEsNecesario();
+            if (!idiomas.values().stream().allMatch(idioma -> idioma.extremosExactos)) {
+                cargarEstadisticas();
+            }
+            return listarEstadisticas();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra un libro nuevo.
+     *
+     * @param libro La proyección del libro persistido.
+     */
+    public void registrar(LibroResumen libro) {
+        if (!cargado || libro.idioma() == null) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            agregar(libro);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza un libro registrado.
+     *
+     * @param anterior La proyección del libro antes del cambio.
+     * @param nuevo    La proyección del libro después del cambio.
+     */
+    public void actualizar(LibroResumen anterior, LibroResumen nuevo) {
+        if (!cargado) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            if (anterior.idioma() != null && anterior.idioma().equals(nuevo.idioma())) {
+                Idioma idioma = idiomas.get(anterior.idioma());
+                idioma.quitar(anterior.numeroDescargas());
+                idioma.agregar(nuevo.numeroDescargas());
+                idioma.ranking.reemplazar(anterior, nuevo, idioma.cantidad);
+                general.reemplazar(anterior, nuevo, totalLibros);
+            } else {
+                quitar(anterior);
+                agregar(nuevo);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un libro.
+     *
+     * @param libro La proyección del libro eliminado.
+     */
+    public void eliminar(LibroResumen libro) {
+        if (!cargado) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            quitar(libro);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el contenido para que se vuelva a cargar en la próxima consulta.
+     * Se usa tras modificaciones masivas en las que no se conocen los valores anteriores de cada libro.
+     */
+    public void invalidar() {
+        cerrojo.writeLock().lock();
+        try {
+            cargado = false;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private void cargarSiEsNecesario() {
+        if (!cargado) {
+            cargar();
+        }
+    }
+
+    private void cargar() {
+        cargarEstadisticas();
+        general.cargar(libroRepository.findMasDescargados(PageRequest.of(0, tamano)));
+        cargado = true;
+    }
+
+    /**
+     * Lee las estadísticas de cada idioma; los rankings por idioma quedan pendientes de cargar.
+     */
+    private void cargarEstadisticas() {
+        idiomas.clear();
+        totalLibros = 0;
+        for (Object[] fila : libroRepository.findFilasEstadisticasPorIdioma()) {
+            Idioma idioma = new Idioma();
+            idioma.cantidad = ((Number) fila[1]).longValue();
+            idioma.minimo = ((Number) fila[2]).intValue();
+            idioma.maximo = ((Number) fila[3]).intValue();
+            idioma.suma = ((Number) fila[4]).longValue();
+            idiomas.put((String) fila[0], idioma);
+            totalLibros += idioma.cantidad;
+        }
+    }
+
+    private List<EstadisticasIdioma> listarEstadisticas() {
+        List<EstadisticasIdioma> estadisticas = new ArrayList<>(idiomas.size());
+        idiomas.forEach((codigo, idioma) -> estadisticas.add(idioma.estadisticas(codigo)));
+        estadisticas.sort(Comparator.comparingLong(EstadisticasIdioma::cantidad).reversed()
+                .thenComparing(EstadisticasIdioma::idioma));
+        return estadisticas;
+    }
+
+    private void agregar(LibroResumen libro) {
+        if (libro.idioma() == null) {
+            return;
+        }
+        Idioma idioma = idiomas.computeIfAbsent(libro.idioma(), codigo -> {
+            Idioma nuevo = new Idioma();
+            // Un idioma nuevo no tiene libros en la base de datos fuera de este
+            nuevo.ranking.completo = true;
+            return nuevo;
+        });
+        idioma.agregar(libro.numeroDescargas());
+        idioma.ranking.agregar(libro);
+        totalLibros++;
+        general.agregar(libro);
+    }
+
+    private void quitar(LibroResumen libro) {
+        Idioma idioma = libro.idioma() != null ? idiomas.get(libro.idioma()) : null;
+        if (idioma == null) {
+            return;
+        }
+        idioma.quitar(libro.numeroDescargas());
+        idioma.ranking.quitar(libro, idioma.cantidad);
+        if (idioma.cantidad == 0) {
+            idiomas.remove(libro.idioma());
+        }
+        totalLibros--;
+        general.quitar(libro, totalLibros);
+    }
+}
@@ -1,5 +1,8 @@
 package com.alura.literalura.service;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 /**
  * Interfaz para convertir datos JSON a objetos DTO.
  * Esta interfaz define un método genérico para deserializar JSON en objetos Java.
@@ -15,4 +18,34 @@ public interface IConvierteDatos {
      * @return Un objeto de la clase especificada que contiene los datos deserializados del JSON.
      */
     <T> T obtenerDatos(String json, Class<T> clase);
+
+    /**
+     * Convierte un flujo de bytes JSON en un objeto de la clase especificada, leyéndolo de forma incremental.
+     *
+     * @param json  El flujo de entrada con el JSON que se va a deserializar.
+     * @param clase La clase a la que se va a convertir el JSON.
+     * @param <T>   El tipo de objeto que se va a retornar.
+     * @return Un objeto de la clase especificada que contiene los datos deserializados del JSON.
+     */
+    <T> T obtenerDatos(InputStream json, Class<T> clase);
+
+    /**
+     * Convierte un buffer de bytes JSON en un objeto de la clase especificada.
+     * Se consumen los bytes restantes del buffer: al terminar, su posición queda en el límite.
+     *
+     * @param json  El buffer con el JSON que se va a deserializar.
+     * @param clase La clase a la que se va a convertir el JSON.
+     * @param <T>   El tipo de objeto que se va a retornar.
+     * @return Un objeto de la clase especificada que contiene los datos deserializados del JSON.
+     */
+    <T> T obtenerDatos(ByteBuffer json, Class<T> clase);
+
+    /**
+     * Lee el valor textual de un campo de primer nivel sin deserializar el resto del documento.
+     *
+     * @param json  El documento JSON en bytes.
+     * @param campo El nombre del campo de primer nivel a leer.
+     * @return El valor del campo como texto, o null si no existe o es nulo.
+     */
+    String obtenerCampo(byte[] json, String campo);
 }
\ No newline at end of file
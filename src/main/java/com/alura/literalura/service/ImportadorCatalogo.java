@@ -0,0 +1,330 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.AutorDTO;
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.dto.RespuestaLibrosDTO;
+import com.alura.literalura.dto.ResumenGuardado;
+import com.alura.literalura.dto.ResumenImportacion;
+import com.alura.literalura.model.Autor;
+import com.alura.literalura.model.Libro;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio para importar el catálogo completo de Gutendex siguiendo los enlaces "next" de cada página.
+ * La importación se organiza en tres etapas que trabajan en paralelo y se comunican mediante colas acotadas:
+ * descarga, deserialización y persistencia. Cuando una etapa se adelanta, la cola llena la bloquea
+ * (contrapresión), de modo que la memoria usada no depende del tamaño del catálogo.
+ * Tras persistir cada página se guarda un punto de control para poder reanudar la importación.
+ */
+@Service
+public class ImportadorCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportadorCatalogo.class);
+
+    @Autowired
+    private ConsumoAPI consumoAPI;
+
+    @Autowired
+    private IConvierteDatos convierteDatos;
+
+    @Autowired
+    private MapeadorLibros mapeadorLibros;
+
+    @Autowired
+    private LibroService libroService;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * URL de la primera página del catálogo.
+     */
+    @Value("${literalura.api.url:https://gutendex.com/books/}")
+    private String urlCatalogo;
+
+    /**
+     * Capacidad de las colas entre etapas, en páginas.
+     */
+    @Value("${literalura.importacion.capacidad-cola:4}")
+    private int capacidadCola;
+
+    /**
+     * Ruta del archivo de punto de control con la siguiente página a importar.
+     */
+    @Value("${literalura.importacion.checkpoint:${user.home}/.literalura/importacion.checkpoint}")
+    private String rutaCheckpoint;
+
+    /**
+     * Página descargada pendiente de deserializar.
+     */
+    private record PaginaDescargada(String url, String siguiente, byte[] cuerpo) {
+    }
+
+    /**
+     * Página deserializada pendiente de persistir.
+     */
+    private record PaginaLibros(String url, String siguiente, List<LibroDTO> libros) {
+    }
+
+    /**
+     * Marca de fin de las colas entre etapas.
+     */
+    private static final PaginaDescargada FIN_DESCARGA = new PaginaDescargada(null, null, null);
+    private static final PaginaLibros FIN_LIBROS = new PaginaLibros(null, null, null);
+
+    /**
+     * Indica si existe un punto de control de una importación anterior sin terminar.
+     *
+     * @return true si la importación se reanudará desde el punto de control.
+     */
+    public boolean hayImportacionPendiente() {
+        return Files.exists(Paths.get(rutaCheckpoint));
+    }
+
+    /**
+     * Importa el catálogo completo, reanudando desde el punto de control si existe.
+     *
+     * @return El resumen de la importación.
+     */
+    public ResumenImportacion importar() {
+        String urlInicial = leerCheckpoint();
+        if (urlInicial == null) {
+            urlInicial = urlCatalogo;
+        } else {
+            log.info("Reanudando la importación desde {}", urlInicial);
+        }
+        return importar(urlInicial);
+    }
+
+    /**
+     * Importa todas las páginas a partir de una URL dada.
+     *
+     * @param urlInicial La URL de la primera página a importar.
+     * @return El resumen de la importación.
+     */
+    public ResumenImportacion importar(String urlInicial) {
+        long inicio = System.nanoTime();
+        BlockingQueue<PaginaDescargada> descargadas = new ArrayBlockingQueue<>(capacidadCola);
+        BlockingQueue<PaginaLibros> deserializadas = new ArrayBlockingQueue<>(capacidadCola);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        ExecutorService etapas = Executors.newFixedThreadPool(2, runnable -> {
+            Thread hilo = new Thread(runnable, "importacion-catalogo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        Future<?> descarga = etapas.submit(() -> descargar(urlInicial, descargadas, error));
+        Future<?> deserializacion = etapas.submit(() -> deserializar(descargadas, deserializadas, error));
+
+        int paginas = 0;
+        int registrados = 0;
+        int actualizados = 0;
+        int omitidos = 0;
+        boolean completa = false;
+        try {
+            while (true) {
+                PaginaLibros pagina = deserializadas.poll(1, TimeUnit.SECONDS);
+                if (pagina == null) {
+                    if (error.get() != null) {
+                        break;
+                    }
+                    continue;
+                }
+                if (pagina == FIN_LIBROS) {
+                    completa = error.get() == null;
+                    break;
+                }
+                ResumenGuardado guardado = persistir(pagina.libros());
+                registrados += guardado.insertados();
+                actualizados += guardado.actualizados();
+                omitidos += pagina.libros().size() - guardado.insertados() - guardado.actualizados();
+                paginas++;
+                guardarCheckpoint(pagina.siguiente());
+                log.info("Página {} importada: {} libros nuevos y {} actualizados ({} nuevos en total)",
+                        paginas, guardado.insertados(), guardado.actualizados(), registrados);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, e);
+        } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+        } finally {
+            descarga.cancel(true);
+            deserializacion.cancel(true);
+            etapas.shutdownNow();
+        }
+
+        if (error.get() != null) {
+            log.warn("Importación detenida: {}", error.get().getMessage());
+        }
+        return new ResumenImportacion(paginas, registrados, actualizados, omitidos, Duration.ofNanos(System.nanoTime() - inicio), completa);
+    }
+
+    /**
+     * Etapa de descarga: recorre las páginas siguiendo el enlace "next" de cada respuesta.
+     * Solo se lee el campo "next" de cada página; la deserialización completa ocurre en la etapa siguiente.
+     */
+    private void descargar(String urlInicial, BlockingQueue<PaginaDescargada> salida, AtomicReference<Throwable> error) {
+        try {
+            String url = urlInicial;
+            while (url != null && error.get() == null) {
+                byte[] cuerpo;
+                try (InputStream flujo = consumoAPI.obtenerFlujo(url)) {
+                    cuerpo = flujo.readAllBytes();
+                }
+                String siguiente = convierteDatos.obtenerCampo(cuerpo, "next");
+                salida.put(new PaginaDescargada(url, siguiente, cuerpo));
+                url = siguiente;
+            }
+            salida.put(FIN_DESCARGA);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            error.compareAndSet(null, new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Etapa de deserialización: convierte el cuerpo de cada página en la lista de libros.
+     */
+    private void deserializar(BlockingQueue<PaginaDescargada> entrada, BlockingQueue<PaginaLibros> salida, AtomicReference<Throwable> error) {
+        try {
+            while (true) {
+                PaginaDescargada pagina = entrada.take();
+                if (pagina == FIN_DESCARGA) {
+                    break;
+                }
+                RespuestaLibrosDTO respuesta = convierteDatos.obtenerDatos(ByteBuffer.wrap(pagina.cuerpo()), RespuestaLibrosDTO.class);
+                List<LibroDTO> libros = respuesta.getLibros() != null ? respuesta.getLibros() : List.of();
+                salida.put(new PaginaLibros(pagina.url(), pagina.siguiente(), libros));
+            }
+            salida.put(FIN_LIBROS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Etapa de persistencia: guarda en una transacción los libros de una página.
+     * Los autores existentes se resuelven con una consulta y los nuevos se insertan en lotes JDBC; los libros
+     * se insertan o actualizan por su identificador de Gutendex con una sentencia por lote, de modo que volver
+     * a importar una página ya importada solo actualiza los libros que cambiaron.
+     * También la usa EscrituraDiferida para persistir los libros registrados desde la búsqueda por título.
+     *
+     * @param librosDTO Los libros de la página.
+     * @return El resumen con los libros insertados, actualizados y omitidos.
+     */
+    ResumenGuardado persistir(List<LibroDTO> librosDTO) {
+        return transactionTemplate.execute(estado -> {
+            List<LibroDTO> conTitulo = librosDTO.stream()
+                    .filter(libroDTO -> libroDTO.getTitulo() != null && !libroDTO.getTitulo().isBlank())
+                    .toList();
+
+            // Resuelve los autores existentes con una consulta y crea el resto en lote
+            Set<String> nombres = new LinkedHashSet<>();
+            conTitulo.forEach(libroDTO -> {
+                AutorDTO autorDTO = mapeadorLibros.primerAutor(libroDTO);
+                if (autorDTO != null && autorDTO.getNombre() != null) {
+                    nombres.add(autorDTO.getNombre());
+                }
+            });
+            Map<String, Autor> autores = new HashMap<>(autorService.obtenerAutoresPorNombre(nombres));
+            List<Autor> autoresNuevos = new ArrayList<>();
+            conTitulo.forEach(libroDTO -> {
+                AutorDTO autorDTO = mapeadorLibros.primerAutor(libroDTO);
+                if (autorDTO != null && autorDTO.getNombre() != null && !autores.containsKey(autorDTO.getNombre())) {
+                    Autor autor = mapeadorLibros.aAutor(autorDTO);
+                    autores.put(autor.getNombre(), autor);
+                    autoresNuevos.add(autor);
+                }
+            });
+            autorService.crearAutores(autoresNuevos);
+
+            List<Libro> libros = new ArrayList<>(conTitulo.size());
+            for (LibroDTO libroDTO : conTitulo) {
+                Libro libro = mapeadorLibros.aLibro(libroDTO);
+                AutorDTO autorDTO = mapeadorLibros.primerAutor(libroDTO);
+                libro.setAutor(autorDTO != null ? autores.get(autorDTO.getNombre()) : null);
+                libros.add(libro);
+            }
+            return libroService.guardarLibros(libros);
+        });
+    }
+
+    /**
+     * Lee la URL guardada en el punto de control.
+     *
+     * @return La URL de la siguiente página a importar, o null si no hay punto de control.
+     */
+    private String leerCheckpoint() {
+        Path ruta = Paths.get(rutaCheckpoint);
+        try {
+            if (!Files.exists(ruta)) {
+                return null;
+            }
+            String url = Files.readString(ruta, StandardCharsets.UTF_8).trim();
+            return url.isEmpty() ? null : url;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el punto de control de la importación", e);
+        }
+    }
+
+    /**
+     * Guarda la URL de la siguiente página a importar, o elimina el punto de control si no quedan páginas.
+     * La escritura se hace sobre un archivo temporal que luego se renombra, para no dejar un punto de control a medias.
+     *
+     * @param siguiente La URL de la siguiente página, o null si la importación terminó.
+     */
+    private void guardarCheckpoint(String siguiente) {
+        Path ruta = Paths.get(rutaCheckpoint);
+        try {
+            if (siguiente == null) {
+                Files.deleteIfExists(ruta);
+                return;
+            }
+            Path directorio = ruta.toAbsolutePath().getParent();
+            Files.createDirectories(directorio);
+            Path temporal = Files.createTempFile(directorio, "importacion", ".tmp");
+            Files.writeString(temporal, siguiente, StandardCharsets.UTF_8);
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el punto de control de la importación", e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.AutorResumen;
+import com.alura.literalura.model.Autor;
+import com.alura.literalura.repository.AutorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de los periodos de vida de los autores para responder "autores vivos en el año X".
+ * Cada autor con año de fallecimiento se registra en las cubetas de diez años que abarca su vida, de modo
+ * que una consulta solo revisa los autores de una cubeta. Los autores sin año de fallecimiento se guardan
+ * ordenados por año de nacimiento, porque siguen vivos en cualquier año posterior.
+ * El índice se carga desde la base de datos en la primera consulta y después se actualiza de forma
+ * incremental cuando se crean, modifican o eliminan autores y libros desde esta aplicación.
+ */
+@Component
+public class IndiceVidaAutores {
+
+    /**
+     * Número de años que abarca cada cubeta.
+     */
+    private static final int ANOS_POR_CUBETA = 10;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    /**
+     * Proyección de cada autor indexado, por identificador.
+     */
+    private final Map<Long, AutorResumen> autores = new HashMap<>();
+
+    /**
+     * Autores con año de fallecimiento, por cubeta de años.
+     */
+    private final Map<Integer, Set<Long>> cubetas = new HashMap<>();
+
+    /**
+     * Autores sin año de fallecimiento, por año de nacimiento.
+     */
+    private final NavigableMap<Integer, Set<Long>> sinFallecimiento = new TreeMap<>();
+
+    private volatile boolean cargado;
+
+    /**
+     * Lista los autores vivos en un año, ordenados por nombre.
+     *
+     * @param ano El año a consultar.
+     * @return Las proyecciones de los autores vivos en ese año.
+     */
+    public List<AutorResumen> vivosEnAno(int ano) {
+        cargarSiEsNecesario();
+        List<AutorResumen> vivos = new ArrayList<>();
+        cerrojo.readLock().lock();
+        try {
+            for (Long id : cubetas.getOrDefault(cubeta(ano), Set.of())) {
+                AutorResumen autor = autores.get(id);
+                if (estaVivo(autor, ano)) {
+                    vivos.add(autor);
+                }
+            }
+            for (Set<Long> ids : sinFallecimiento.headMap(ano, true).values()) {
+                ids.forEach(id -> vivos.add(autores.get(id)));
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        vivos.sort(Comparator.comparing(AutorResumen::nombre, Comparator.nullsLast(Comparator.naturalOrder())));
+        return vivos;
+    }
+
+    /**
+     * Registra un autor nuevo o actualiza uno existente, conservando su cantidad de libros.
+     *
+     * @param autor El autor persistido.
+     */
+    public void registrar(Autor autor) {
+        if (!cargado || autor.getId() == null) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            AutorResumen anterior = quitar(autor.getId());
+            long cantidad = anterior != null && anterior.cantidadLibros() != null ? anterior.cantidadLibros() : 0;
+            agregar(new AutorResumen(autor.getId(), autor.getNombre(), autor.getAnoNacimiento(), autor.getAnoFallecimiento(), cantidad));
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un autor del índice.
+     *
+     * @param id El identificador del autor.
+     */
+    public void eliminar(Long id) {
+        if (!cargado) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            quitar(id);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajusta la cantidad de libros de un autor indexado.
+     *
+     * @param autorId El identificador del autor.
+     * @param delta   La variación en la cantidad de libros.
+     */
+    public void ajustarCantidadLibros(Long autorId, long delta) {
+        if (!cargado || autorId == null) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            autores.computeIfPresent(autorId, (id, autor) -> new AutorResumen(autor.id(), autor.nombre(),
+                    autor.anoNacimiento(), autor.anoFallecimiento(), Math.max(0, autor.cantidadLibros() + delta)));
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el contenido del índice para que se vuelva a cargar en la próxima consulta.
+     */
+    public void invalidar() {
+        cerrojo.writeLock().lock();
+        try {
+            limpiar();
+            cargado = false;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private void cargarSiEsNecesario() {
+        if (cargado) {
+            return;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            if (!cargado) {
+                limpiar();
+                autorRepository.findResumenesConCantidad().forEach(this::agregar);
+                cargado = true;
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private void limpiar() {
+        autores.clear();
+        cubetas.clear();
+        sinFallecimiento.clear();
+    }
+
+    private void agregar(AutorResumen autor) {
+        autores.put(autor.id(), autor);
+        int nacimiento = autor.anoNacimiento();
+        if (autor.anoFallecimiento() == null) {
+            sinFallecimiento.computeIfAbsent(nacimiento, ano -> new HashSet<>()).add(autor.id());
+        } else if (autor.anoFallecimiento() > nacimiento) {
+            for (int c = cubeta(nacimiento); c <= cubeta(autor.anoFallecimiento() - 1); c++) {
+                cubetas.computeIfAbsent(c, clave -> new HashSet<>()).add(autor.id());
+            }
+        }
+    }
+
+    private AutorResumen quitar(Long id) {
+        AutorResumen autor = autores.remove(id);
+        if (autor == null) {
+            return null;
+        }
+        int nacimiento = autor.anoNacimiento();
+        if (autor.anoFallecimiento() == null) {
+            Set<Long> ids = sinFallecimiento.get(nacimiento);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                sinFallecimiento.remove(nacimiento);
+            }
+        } else if (autor.anoFallecimiento() > nacimiento) {
+            for (int c = cubeta(nacimiento); c <= cubeta(autor.anoFallecimiento() - 1); c++) {
+                Set<Long> ids = cubetas.get(c);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    cubetas.remove(c);
+                }
+            }
+        }
+        return autor;
+    }
+
+    /**
+     * Misma condición que la consulta de la base de datos: nacido hasta ese año y fallecido después.
+     */
+    private static boolean estaVivo(AutorResumen autor, int ano) {
+        return autor.anoNacimiento() <= ano && (autor.anoFallecimiento() == null || autor.anoFallecimiento() > ano);
+    }
+
+    private static int cubeta(int ano) {
+        return Math.floorDiv(ano, ANOS_POR_CUBETA);
+    }
+}
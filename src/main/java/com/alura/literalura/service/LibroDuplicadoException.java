@@ -0,0 +1,34 @@
+package com.alura.literalura.service;
+
+/**
+ * Excepción lanzada cuando se intenta registrar un libro cuyo título normalizado o identificador de Gutendex ya existe.
+ * La detecta la base de datos (restricciones únicas e inserción con ON CONFLICT), por lo que también cubre
+ * registros concurrentes.
+ */
+public class LibroDuplicadoException extends RuntimeException {
+
+    /**
+     * Título del libro duplicado.
+     */
+    private final String titulo;
+
+    /**
+     * Crea la excepción para un título duplicado.
+     *
+     * @param titulo El título del libro que no se pudo registrar.
+     * @param causa  La violación de la restricción única, o null si la inserción no creó el libro.
+     */
+    public LibroDuplicadoException(String titulo, Throwable causa) {
+        super("El libro '" + titulo + "' ya está registrado", causa);
+        this.titulo = titulo;
+    }
+
+    /**
+     * Obtiene el título del libro duplicado.
+     *
+     * @return El título del libro duplicado.
+     */
+    public String getTitulo() {
+        return titulo;
+    }
+}
@@ -1,12 +1,41 @@
 package com.alura.literalura.service;
 
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.dto.ResumenGuardado;
+import com.alura.literalura.model.Autor;
 import com.alura.literalura.model.Libro;
+import com.alura.literalura.repository.AutorRepository;
 import com.alura.literalura.repository.LibroRepository;
+import com.alura.literalura.util.Normalizador;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alura.literalura.util.Transacciones.despuesDeConfirmar;
 
 /**
  * Servicio para gestionar libros.
@@ -15,6 +44,53 @@ import java.util.Optional;
 @Service
 public class LibroService {
 
+    /**
+     * Inserta un lote de libros o actualiza los ya registrados con el mismo identificador de Gutendex,
+     * en una sola sentencia: los valores llegan como arreglos, uno por columna, y unnest los convierte en filas.
+     * Un libro cuyo título normalizado ya pertenece a otro libro se omite, en lugar de violar la restricción única.
+     * La actualización solo se aplica si cambia el idioma o el número de descargas, para no reescribir filas iguales.
+     * Los libros insertados o actualizados quedan con el número de descargas recién comprobado.
+     * RETURNING devuelve una fila por libro insertado o actualizado; xmax = 0 distingue las inserciones.
+     * El título normalizado devuelto identifica el libro del lote al que corresponde cada fila, y el nombre del
+     * autor se lee en la misma sentencia, sin tocar la entidad Autor del libro (puede ser una referencia sin cargar).
+     * Los identificadores se reservan como lo hace el optimizador pooled de Hibernate: un solo nextval por lote
+     * reserva el bloque de Libro.BLOQUE_IDS identificadores que termina en el valor devuelto, y cada fila toma
+     * el de su posición en el lote. Los identificadores de las filas omitidas o actualizadas quedan sin usar,
+     * como máximo un bloque por lote.
+     */
+    private static final String UPSERT_LIBROS = """
+            WITH bloque AS (SELECT nextval('libros_seq') AS ultimo)
+            INSERT INTO libros (id, gutendex_id, titulo, titulo_normalizado, idioma, numero_descargas, autor_id, descargas_actualizadas)
+            SELECT b.ultimo - ? + d.posicion, d.gutendex_id, d.titulo, d.titulo_normalizado, d.idioma, d.numero_descargas, d.autor_id, now()
+            FROM bloque b,
+                 unnest(?::integer[], ?::text[], ?::text[], ?::text[], ?::integer[], ?::bigint[]) WITH ORDINALITY
+                 AS d(gutendex_id, titulo, titulo_normalizado, idioma, numero_descargas, autor_id, posicion)
+            WHERE NOT EXISTS (SELECT 1 FROM libros l WHERE l.titulo_normalizado = d.titulo_normalizado
+                              AND (d.gutendex_id IS NULL OR l.gutendex_id IS DISTINCT FROM d.gutendex_id))
+            ON CONFLICT (gutendex_id) DO UPDATE
+                SET idioma = EXCLUDED.idioma, numero_descargas = EXCLUDED.numero_descargas, descargas_actualizadas = now()
+                WHERE (libros.idioma, libros.numero_descargas) IS DISTINCT FROM (EXCLUDED.idioma, EXCLUDED.numero_descargas)
+            RETURNING id, titulo_normalizado, autor_id, (SELECT a.nombre FROM autores a WHERE a.id = autor_id) AS autor_nombre,
+                      xmax = 0 AS insertado
+            """;
+
+    /**
+     * Actualiza el número de descargas de un libro, solo si es distinto del registrado.
+     */
+    private static final String ACTUALIZAR_DESCARGAS =
+            "UPDATE libros SET numero_descargas = ? WHERE gutendex_id = ? AND numero_descargas <> ?";
+
+    /**
+     * Marca como comprobados los libros con los identificadores de Gutendex dados.
+     */
+    private static final String MARCAR_DESCARGAS_ACTUALIZADAS =
+            "UPDATE libros SET descargas_actualizadas = ? WHERE gutendex_id = ANY (?)";
+
+    /**
+     * Rol de la colección de libros de cada autor en la caché de segundo nivel.
+     */
+    private static final String COLECCION_LIBROS_DE_AUTOR = Autor.class.getName() + ".libros";
+
     /**
      * Repositorio de libros.
      * Inyectado automáticamente por Spring.
@@ -23,12 +99,62 @@ public class LibroService {
     private LibroRepository libroRepository;
 
     /**
-     * Lista todos los libros registrados en la base de datos.
+     * Repositorio de autores, usado para obtener el nombre de un autor que no está cargado.
+     */
+    @Autowired
+    private AutorRepository autorRepository;
+
+    /**
+     * Índice en memoria de los periodos de vida de los autores, que guarda la cantidad de libros de cada uno.
+     */
+    @Autowired
+    private IndiceVidaAutores indiceVida;
+
+    /**
+     * Ranking de los libros más descargados y estadísticas de descargas por idioma.
+     */
+    @Autowired
+    private EstadisticasDescargas estadisticas;
+
+    /**
+     * EntityManager usado para las inserciones masivas.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * JdbcTemplate usado para la inserción con actualización, que Hibernate no puede expresar.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tamaño de los lotes de inserción; coincide con el tamaño de lote JDBC de Hibernate.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLote;
+
+    /**
+     * Lista una página de libros a partir de un identificador, usando paginación por clave.
+     *
+     * @param ultimoId El identificador del último libro de la página anterior, o 0 para la primera página.
+     * @param tamano   El número máximo de libros de la página.
+     * @return Una porción de proyecciones de libros ordenadas por identificador, indicando si hay más.
+     */
+    public Slice<LibroResumen> listarLibrosDesde(long ultimoId, int tamano) {
+        return libroRepository.findSiguientes(ultimoId, PageRequest.of(0, tamano));
+    }
+
+    /**
+     * Lista una página de libros de un idioma a partir de un identificador, usando paginación por clave.
      *
-     * @return Una lista de todos los libros.
+     * @param idioma   El idioma de los libros.
+     * @param ultimoId El identificador del último libro de la página anterior, o 0 para la primera página.
+     * @param tamano   El número máximo de libros de la página.
+     * @return Una porción de proyecciones de libros ordenadas por identificador, indicando si hay más.
      */
-    public List<Libro> listarLibros() {
-        return libroRepository.findAll();
+    public Slice<LibroResumen> listarLibrosPorIdiomaDesde(String idioma, long ultimoId, int tamano) {
+        return libroRepository.findSiguientesPorIdioma(idioma, ultimoId, PageRequest.of(0, tamano));
     }
 
     /**
@@ -37,18 +163,208 @@ public class LibroService {
      * @param idioma El idioma de los libros a buscar.
      * @return Una lista de libros que coinciden con el idioma especificado.
      */
-    public List<Libro> listarLibrosPorIdioma(String idioma) {
+    public List<LibroResumen> listarLibrosPorIdioma(String idioma) {
         return libroRepository.findByIdioma(idioma);
     }
 
     /**
-     * Crea un nuevo libro en la base de datos.
+     * Guarda varios libros usando su identificador de Gutendex como clave natural: los nuevos se insertan
+     * y los ya registrados se actualizan, de modo que guardar dos veces los mismos libros no los duplica.
+     * Cada lote de hasta hibernate.jdbc.batch_size libros (y no más de Libro.BLOQUE_IDS) se envía en una sola sentencia, sin consultar
+     * antes qué libros existen. Los libros repetidos dentro de la colección (mismo identificador o mismo
+     * título normalizado) se guardan una sola vez, y los libros sin título se omiten.
+     * Las sentencias no pasan por Hibernate, así que al confirmar se descartan de la caché de segundo nivel
+     * los libros, las colecciones de libros de los autores y los resultados de consultas.
      *
-     * @param libro El objeto Libro a crear.
-     * @return El libro creado.
+     * @param libros Los libros a guardar; sus autores deben estar ya persistidos.
+     * @return El resumen con los libros insertados, actualizados y omitidos.
+     * @throws LibroDuplicadoException Si se guarda un solo libro y otro con el mismo título se registró a la vez.
      */
-    public Libro crearLibro(Libro libro) {
-        return libroRepository.save(libro);
+    @Transactional
+    public ResumenGuardado guardarLibros(Collection<Libro> libros) {
+        // Los autores nuevos de la transacción deben existir en la base de datos antes de referenciarlos
+        entityManager.flush();
+
+        Map<String, Libro> candidatos = new LinkedHashMap<>();
+        Set<Integer> idsGutendex = new HashSet<>();
+        for (Libro libro : libros) {
+            String tituloNormalizado = Normalizador.normalizarTitulo(libro.getTitulo());
+            if (tituloNormalizado != null && !tituloNormalizado.isEmpty()
+                    && (libro.getGutendexId() == null || idsGutendex.add(libro.getGutendexId()))) {
+                candidatos.putIfAbsent(tituloNormalizado, libro);
+            }
+        }
+
+        List<Long> autoresConLibroNuevo = new ArrayList<>();
+        List<LibroResumen> insertados = new ArrayList<>();
+        AtomicInteger actualizados = new AtomicInteger();
+        List<Map.Entry<String, Libro>> pendientes = new ArrayList<>(candidatos.entrySet());
+        try {
+            int tamanoUpsert = tamanoLoteUpsert();
+            for (int desde = 0; desde < pendientes.size(); desde += tamanoUpsert) {
+                List<Map.Entry<String, Libro>> lote = pendientes.subList(desde, Math.min(desde + tamanoUpsert, pendientes.size()));
+                jdbcTemplate.query(UPSERT_LIBROS, sentencia -> asignarLote(sentencia, lote), fila -> {
+                    if (fila.getBoolean("insertado")) {
+                        long autorId = fila.getLong("autor_id");
+                        autoresConLibroNuevo.add(fila.wasNull() ? null : autorId);
+                        Libro libro = candidatos.get(fila.getString("titulo_normalizado"));
+                        insertados.add(new LibroResumen(fila.getLong("id"), libro.getTitulo(),
+                                fila.getString("autor_nombre"), libro.getIdioma(), libro.getNumeroDescargas()));
+                    } else {
+                        actualizados.incrementAndGet();
+                    }
+                });
+            }
+        } catch (DuplicateKeyException e) {
+            if (libros.size() == 1) {
+                throw new LibroDuplicadoException(libros.iterator().next().getTitulo(), e);
+            }
+            throw e;
+        }
+
+        int cantidadInsertados = insertados.size();
+        int cantidadActualizados = actualizados.get();
+        if (cantidadInsertados + cantidadActualizados > 0) {
+            despuesDeConfirmar(() -> {
+                descartarLibrosDeCache();
+                autoresConLibroNuevo.forEach(autorId -> indiceVida.ajustarCantidadLibros(autorId, 1));
+                // Las filas actualizadas no devuelven sus valores anteriores: las estadísticas se vuelven a cargar
+                if (cantidadActualizados > 0) {
+                    estadisticas.invalidar();
+                } else {
+                    insertados.forEach(estadisticas::registrar);
+                }
+            });
+        }
+        return new ResumenGuardado(cantidadInsertados, cantidadActualizados,
+                libros.size() - cantidadInsertados - cantidadActualizados);
+    }
+
+    /**
+     * Obtiene los libros cuyo número de descargas no se comprueba desde antes de un instante dado,
+     * empezando por los que nunca se comprobaron. Solo se consideran los libros con identificador de Gutendex.
+     *
+     * @param limite  El instante a partir del cual una comprobación se considera reciente.
+     * @param maximo  El número máximo de libros a devolver.
+     * @return El número de descargas registrado de cada libro, por identificador de Gutendex, del más antiguo al más reciente.
+     */
+    public Map<Integer, Integer> obtenerDescargasPendientes(Instant limite, int maximo) {
+        Map<Integer, Integer> descargas = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT gutendex_id, numero_descargas FROM libros WHERE gutendex_id IS NOT NULL " +
+                        "AND (descargas_actualizadas IS NULL OR descargas_actualizadas < ?) " +
+                        "ORDER BY descargas_actualizadas NULLS FIRST, id LIMIT ?",
+                fila -> {
+                    descargas.put(fila.getInt(1), fila.getInt(2));
+                }, Timestamp.from(limite), maximo);
+        return descargas;
+    }
+
+    /**
+     * Indica cuáles de los identificadores de Gutendex dados pertenecen a libros registrados.
+     *
+     * @param idsGutendex Los identificadores de Gutendex a comprobar.
+     * @return Los identificadores que tienen un libro registrado.
+     */
+    public Set<Integer> obtenerGutendexIdsRegistrados(Collection<Integer> idsGutendex) {
+        Set<Integer> registrados = new HashSet<>();
+        if (idsGutendex.isEmpty()) {
+            return registrados;
+        }
+        jdbcTemplate.query("SELECT gutendex_id FROM libros WHERE gutendex_id = ANY (?)",
+                sentencia -> sentencia.setArray(1, sentencia.getConnection().createArrayOf("integer", idsGutendex.toArray())),
+                fila -> {
+                    registrados.add(fila.getInt(1));
+                });
+        return registrados;
+    }
+
+    /**
+     * Aplica los números de descargas obtenidos de la API y marca los libros revisados como comprobados.
+     * Las actualizaciones de descargas se envían en lotes JDBC y solo modifican las filas cuyo número cambió;
+     * la marca de comprobación se aplica a todos los libros revisados con una sola sentencia.
+     *
+     * @param descargas Los números de descargas que cambiaron, por identificador de Gutendex.
+     * @param revisados Los identificadores de Gutendex de todos los libros revisados.
+     * @param instante  El instante de la comprobación.
+     * @return El número de libros cuyo número de descargas se actualizó.
+     */
+    @Transactional
+    public int actualizarDescargas(Map<Integer, Integer> descargas, Collection<Integer> revisados, Instant instante) {
+        int actualizados = 0;
+        if (!descargas.isEmpty()) {
+            List<Map.Entry<Integer, Integer>> cambios = new ArrayList<>(descargas.entrySet());
+            int[][] filas = jdbcTemplate.batchUpdate(ACTUALIZAR_DESCARGAS, cambios, tamanoLote, (sentencia, cambio) -> {
+                sentencia.setInt(1, cambio.getValue());
+                sentencia.setInt(2, cambio.getKey());
+                sentencia.setInt(3, cambio.getValue());
+            });
+            for (int[] lote : filas) {
+                for (int fila : lote) {
+                    actualizados += Math.max(fila, 0);
+                }
+            }
+        }
+        if (!revisados.isEmpty()) {
+            jdbcTemplate.update(MARCAR_DESCARGAS_ACTUALIZADAS, sentencia -> {
+                sentencia.setTimestamp(1, Timestamp.from(instante));
+                sentencia.setArray(2, sentencia.getConnection().createArrayOf("integer", revisados.toArray()));
+            });
+        }
+        if (actualizados > 0) {
+            despuesDeConfirmar(() -> {
+                descartarLibrosDeCache();
+                estadisticas.invalidar();
+            });
+        }
+        return actualizados;
+    }
+
+    /**
+     * Descarta de la caché de segundo nivel los libros, las colecciones de libros de los autores y los
+     * resultados de consultas, después de modificar la tabla de libros con sentencias que no pasan por Hibernate.
+     */
+    private void descartarLibrosDeCache() {
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictEntityData(Libro.class);
+        cache.evictCollectionData(COLECCION_LIBROS_DE_AUTOR);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Tamaño de los lotes de la inserción con actualización, que no puede superar el bloque de identificadores.
+     */
+    private int tamanoLoteUpsert() {
+        return Math.min(tamanoLote, Libro.BLOQUE_IDS);
+    }
+
+    /**
+     * Asigna los arreglos de columnas de un lote a la sentencia UPSERT_LIBROS.
+     */
+    private static void asignarLote(PreparedStatement sentencia, List<Map.Entry<String, Libro>> lote) throws SQLException {
+        int tamano = lote.size();
+        Integer[] idsGutendex = new Integer[tamano];
+        String[] titulos = new String[tamano];
+        String[] titulosNormalizados = new String[tamano];
+        String[] idiomas = new String[tamano];
+        Integer[] descargas = new Integer[tamano];
+        Long[] autores = new Long[tamano];
+        for (int i = 0; i < tamano; i++) {
+            Libro libro = lote.get(i).getValue();
+            idsGutendex[i] = libro.getGutendexId();
+            titulos[i] = libro.getTitulo();
+            titulosNormalizados[i] = lote.get(i).getKey();
+            idiomas[i] = libro.getIdioma();
+            descargas[i] = libro.getNumeroDescargas();
+            autores[i] = libro.getAutor() != null ? libro.getAutor().getId() : null;
+        }
+        Connection conexion = sentencia.getConnection();
+        sentencia.setInt(1, Libro.BLOQUE_IDS);
+        sentencia.setArray(2, conexion.createArrayOf("integer", idsGutendex));
+        sentencia.setArray(3, conexion.createArrayOf("text", titulos));
+        sentencia.setArray(4, conexion.createArrayOf("text", titulosNormalizados));
+        sentencia.setArray(5, conexion.createArrayOf("text", idiomas));
+        sentencia.setArray(6, conexion.createArrayOf("integer", descargas));
+        sentencia.setArray(7, conexion.createArrayOf("bigint", autores));
     }
 
     /**
@@ -62,13 +378,13 @@ public class LibroService {
     }
 
     /**
-     * Obtiene un libro por su título, ignorando mayúsculas y minúsculas.
+     * Obtiene un libro por su título, ignorando mayúsculas, minúsculas y acentos.
      *
      * @param titulo El título del libro a buscar.
      * @return Un Optional que contiene el libro si se encuentra, o Optional.empty() si no se encuentra.
      */
     public Optional<Libro> obtenerLibroPorTitulo(String titulo) {
-        return libroRepository.findByTituloIgnoreCase(titulo);
+        return libroRepository.findByTituloNormalizado(Normalizador.normalizarTitulo(titulo));
     }
 
     /**
@@ -81,11 +397,23 @@ public class LibroService {
      */
     public Libro actualizarLibro(Long id, Libro libroDetalles) {
         Libro libro = libroRepository.findById(id).orElseThrow(() -> new RuntimeException("Libro no encontrado"));
+        LibroResumen anterior = resumir(libro);
         libro.setTitulo(libroDetalles.getTitulo());
         libro.setIdioma(libroDetalles.getIdioma());
         libro.setNumeroDescargas(libroDetalles.getNumeroDescargas());
+        Long autorAnterior = libro.getAutor() != null ? libro.getAutor().getId() : null;
         libro.setAutor(libroDetalles.getAutor());
-        return libroRepository.save(libro);
+        Libro actualizado = libroRepository.save(libro);
+        Long autorNuevo = actualizado.getAutor() != null ? actualizado.getAutor().getId() : null;
+        LibroResumen nuevo = resumir(actualizado);
+        despuesDeConfirmar(() -> {
+            if (!Objects.equals(autorAnterior, autorNuevo)) {
+                indiceVida.ajustarCantidadLibros(autorAnterior, -1);
+                indiceVida.ajustarCantidadLibros(autorNuevo, 1);
+            }
+            estadisticas.actualizar(anterior, nuevo);
+        });
+        return actualizado;
     }
 
     /**
@@ -94,6 +422,45 @@ public class LibroService {
      * @param id El identificador único del libro a eliminar.
      */
     public void eliminarLibro(Long id) {
+        Optional<Libro> libro = libroRepository.findById(id);
         libroRepository.deleteById(id);
+        libro.ifPresent(eliminado -> contarLibros(List.of(eliminado), -1));
+    }
+
+    /**
+     * Obtiene la proyección de un libro con la que se actualizan las estadísticas de descargas.
+     * Debe tomarse antes de modificar la entidad si se necesita su estado anterior.
+     * El autor de un libro puede ser una referencia sin cargar de una sesión ya cerrada (por ejemplo, la que
+     * devuelve la caché de autores), así que su nombre solo se lee si está cargado; si no, se busca el autor
+     * por su identificador, que se obtiene de la referencia sin inicializarla y suele estar en la caché de segundo nivel.
+     */
+    private LibroResumen resumir(Libro libro) {
+        Autor autor = libro.getAutor();
+        String nombreAutor = null;
+        if (autor != null) {
+            nombreAutor = Hibernate.isInitialized(autor)
+                    ? autor.getNombre()
+                    : autorRepository.findById(autor.getId()).map(Autor::getNombre).orElse(null);
+        }
+        return new LibroResumen(libro.getId(), libro.getTitulo(), nombreAutor, libro.getIdioma(), libro.getNumeroDescargas());
+    }
+
+    /**
+     * Actualiza la cantidad de libros por autor del índice de periodos de vida y las estadísticas de descargas
+     * cuando se confirme la transacción.
+     *
+     * @param libros Los libros creados o eliminados.
+     * @param delta  1 si los libros se crearon, -1 si se eliminaron.
+     */
+    private void contarLibros(List<Libro> libros, int delta) {
+        List<Long> autores = libros.stream()
+                .filter(libro -> libro.getAutor() != null)
+                .map(libro -> libro.getAutor().getId())
+                .toList();
+        List<LibroResumen> resumenes = libros.stream().map(this::resumir).toList();
+        despuesDeConfirmar(() -> {
+            autores.forEach(autorId -> indiceVida.ajustarCantidadLibros(autorId, delta));
+            resumenes.forEach(delta > 0 ? estadisticas::registrar : estadisticas::eliminar);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.alura.literalura.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de tasa de las solicitudes a la API, basado en un cubo de fichas.
+ * El cubo se recarga a un ritmo constante (solicitudes por segundo) hasta una capacidad máxima que
+ * permite ráfagas cortas. Cada solicitud consume una ficha; si no quedan, la ficha se reserva y quien
+ * llama espera hasta que se recargue, de modo que las solicitudes se atienden en orden de llegada.
+ */
+@Component
+public class LimitadorTasa {
+
+    /**
+     * Solicitudes por segundo permitidas de forma sostenida; 0 o menos deshabilita el límite.
+     */
+    @Value("${literalura.http.limite.tasa:5}")
+    private double tasa;
+
+    /**
+     * Número máximo de solicitudes que pueden hacerse seguidas tras un periodo de inactividad.
+     */
+    @Value("${literalura.http.limite.rafaga:10}")
+    private int rafaga;
+
+    private double fichas;
+    private long ultimaRecarga;
+
+    @PostConstruct
+    void iniciar() {
+        fichas = rafaga;
+        ultimaRecarga = System.nanoTime();
+    }
+
+    /**
+     * Obtiene una ficha, bloqueando el hilo hasta que esté disponible.
+     *
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera.
+     */
+    public void adquirir() throws InterruptedException {
+        long espera = reservar();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    /**
+     * Obtiene una ficha sin bloquear el hilo que llama.
+     * Si el CompletableFuture se cancela antes de que la ficha esté disponible, la ficha se devuelve al cubo.
+     *
+     * @return Un CompletableFuture que se completa cuando la ficha está disponible.
+     */
+    public CompletableFuture<Void> adquirirAsync() {
+        long espera = reservar();
+        if (espera <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> ficha = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(espera, TimeUnit.NANOSECONDS).execute(() -> ficha.complete(null));
+        ficha.whenComplete((resultado, error) -> {
+            if (ficha.isCancelled()) {
+                devolver();
+            }
+        });
+        return ficha;
+    }
+
+    /**
+     * Devuelve al cubo una ficha obtenida para una solicitud que finalmente no se envió.
+     */
+    public synchronized void devolver() {
+        if (tasa > 0) {
+            fichas = Math.min(rafaga, fichas + 1);
+        }
+    }
+
+    /**
+     * Recarga el cubo según el tiempo transcurrido y consume una ficha, que puede quedar en deuda.
+     *
+     * @return Los nanosegundos que hay que esperar para que la ficha reservada esté disponible.
+     */
+    private synchronized long reservar() {
+        if (tasa <= 0) {
+            return 0;
+        }
+        long ahora = System.nanoTime();
+        fichas = Math.min(rafaga, fichas + (ahora - ultimaRecarga) * tasa / 1e9);
+        ultimaRecarga = ahora;
+        fichas -= 1;
+        return fichas >= 0 ? 0 : (long) Math.ceil(-fichas / tasa * 1e9);
+    }
+}
@@ -0,0 +1,56 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.AutorDTO;
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.model.Autor;
+import com.alura.literalura.model.Libro;
+import org.springframework.stereotype.Component;
+
+/**
+ * Componente para convertir los DTO recibidos de la API en entidades persistibles.
+ * Centraliza el mapeo que usan tanto la búsqueda interactiva como la importación masiva.
+ */
+@Component
+public class MapeadorLibros {
+
+    /**
+     * Convierte un LibroDTO en una entidad Libro sin autor asignado.
+     * Se toma el primer idioma de la lista, o null si la API no informa ninguno.
+     * El identificador de Gutendex queda en null si la API no lo informa.
+     *
+     * @param libroDTO El libro recibido de la API.
+     * @return La entidad Libro con identificador de Gutendex, título, idioma y número de descargas.
+     */
+    public Libro aLibro(LibroDTO libroDTO) {
+        Libro libro = new Libro();
+        libro.setGutendexId(libroDTO.getId() > 0 ? libroDTO.getId() : null);
+        libro.setTitulo(libroDTO.getTitulo());
+        libro.setIdioma(libroDTO.getIdiomas() == null || libroDTO.getIdiomas().isEmpty() ? null : libroDTO.getIdiomas().get(0));
+        libro.setNumeroDescargas(libroDTO.getNumeroDescargas());
+        return libro;
+    }
+
+    /**
+     * Convierte un AutorDTO en una entidad Autor nueva.
+     *
+     * @param autorDTO El autor recibido de la API.
+     * @return La entidad Autor con nombre y años de nacimiento y fallecimiento.
+     */
+    public Autor aAutor(AutorDTO autorDTO) {
+        Autor autor = new Autor();
+        autor.setNombre(autorDTO.getNombre());
+        autor.setAnoNacimiento(autorDTO.getAnoNacimiento());
+        autor.setAnoFallecimiento(autorDTO.getAnoFallecimiento());
+        return autor;
+    }
+
+    /**
+     * Obtiene el primer autor de un libro, que es el que se registra en la base de datos.
+     *
+     * @param libroDTO El libro recibido de la API.
+     * @return El primer autor del libro, o null si la API no informa ninguno.
+     */
+    public AutorDTO primerAutor(LibroDTO libroDTO) {
+        return libroDTO.getAutores() == null || libroDTO.getAutores().isEmpty() ? null : libroDTO.getAutores().get(0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.util.Normalizador;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Completa el título normalizado de los libros registrados antes de que existiera la columna.
+ * Se ejecuta al arrancar, antes del menú, y no hace nada si todos los libros ya lo tienen.
+ */
+@Component
+public class MigracionTitulosNormalizados {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionTitulosNormalizados.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Tamaño de los lotes de actualización.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLote;
+
+    /**
+     * Calcula y guarda el título normalizado de los libros que no lo tienen.
+     * Los libros cuyo título normalizado coincide con el de otro ya registrado se dejan sin normalizar
+     * y se informan en el log, porque la restricción única impediría guardarlos.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void completarTitulosNormalizados() {
+        Integer pendientes = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM libros WHERE titulo_normalizado IS NULL AND titulo IS NOT NULL", Integer.class);
+        if (pendientes == null || pendientes == 0) {
+            return;
+        }
+
+        Set<String> usados = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT titulo_normalizado FROM libros WHERE titulo_normalizado IS NOT NULL", String.class));
+        List<Object[]> actualizaciones = new ArrayList<>(pendientes);
+        jdbcTemplate.query("SELECT id, titulo FROM libros WHERE titulo_normalizado IS NULL AND titulo IS NOT NULL ORDER BY id", fila -> {
+            long id = fila.getLong(1);
+            String titulo = fila.getString(2);
+            String normalizado = Normalizador.normalizarTitulo(titulo);
+            if (usados.add(normalizado)) {
+                actualizaciones.add(new Object[]{normalizado, id});
+            } else {
+                log.warn("El libro {} ('{}') duplica el título de otro libro registrado; se deja sin normalizar", id, titulo);
+            }
+        });
+
+        jdbcTemplate.batchUpdate("UPDATE libros SET titulo_normalizado = ? WHERE id = ?", actualizaciones, tamanoLote,
+                (sentencia, valores) -> {
+                    sentencia.setString(1, (String) valores[0]);
+                    sentencia.setLong(2, (Long) valores[1]);
+                });
+        // Las actualizaciones por JDBC no pasan por Hibernate: se descartan los libros de la caché de segundo nivel
+        entityManagerFactory.getCache().evict(Libro.class);
+        log.info("Se normalizaron los títulos de {} libros existentes", actualizaciones.size());
+    }
+}
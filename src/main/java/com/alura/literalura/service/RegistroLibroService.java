@@ -0,0 +1,531 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.AutorDTO;
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.dto.RespuestaLibrosDTO;
+import com.alura.literalura.dto.ResultadoRegistro;
+import com.alura.literalura.dto.ResultadoRegistro.Estado;
+import com.alura.literalura.dto.ResumenLote;
+import com.alura.literalura.model.Autor;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.monitoreo.DescargaApiEvento;
+import com.alura.literalura.monitoreo.DeserializacionEvento;
+import com.alura.literalura.monitoreo.InsercionLibroEvento;
+import com.alura.literalura.monitoreo.RegistroLibroEvento;
+import com.alura.literalura.monitoreo.ResolucionAutorEvento;
+import com.alura.literalura.monitoreo.VerificacionDuplicadoEvento;
+import com.alura.literalura.util.FlujoContado;
+import com.alura.literalura.util.Normalizador;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Servicio para buscar libros por título en la API y registrarlos.
+ * Atiende tanto la búsqueda individual del menú como el registro en lote de una lista de títulos,
+ * que se resuelven en paralelo con un número máximo de búsquedas simultáneas.
+ * Con literalura.escritura-diferida.habilitada, un libro encontrado se anota en EscrituraDiferida y se devuelve
+ * como ACEPTADO (pendiente de guardar); se persiste en segundo plano y la búsqueda no espera a la base de datos.
+ * Cada etapa del registro emite un evento de Java Flight Recorder (ver el paquete monitoreo).
+ */
+@Service
+public class RegistroLibroService {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroLibroService.class);
+
+    /**
+     * Número de cerrojos entre los que se reparten los nombres de autor.
+     */
+    private static final int CERROJOS_AUTOR = 64;
+
+    @Autowired
+    private ConsumoAPI consumoAPI;
+
+    @Autowired
+    private IConvierteDatos convierteDatos;
+
+    @Autowired
+    private MapeadorLibros mapeadorLibros;
+
+    @Autowired
+    private LibroService libroService;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private CacheTitulosNoEncontrados titulosNoEncontrados;
+
+    @Autowired
+    private EscrituraDiferida escrituraDiferida;
+
+    /**
+     * URL del recurso de libros de la API.
+     */
+    @Value("${literalura.api.url:https://gutendex.com/books/}")
+    private String urlApi;
+
+    /**
+     * Número máximo de páginas de resultados que se revisan al buscar un título.
+     */
+    @Value("${literalura.busqueda.paginas-maximas:5}")
+    private int paginasMaximas;
+
+    /**
+     * Número máximo de títulos que se buscan a la vez en el registro en lote.
+     */
+    @Value("${literalura.lote.concurrencia:8}")
+    private int concurrencia;
+
+    /**
+     * Si es true, los libros encontrados se persisten en segundo plano mediante EscrituraDiferida.
+     */
+    @Value("${literalura.escritura-diferida.habilitada:true}")
+    private boolean escrituraDiferidaHabilitada;
+
+    /**
+     * Hilos que leen y deserializan las páginas adicionales de resultados.
+     */
+    private final ExecutorService lectorPaginas = Executors.newCachedThreadPool(runnable -> {
+        Thread hilo = new Thread(runnable, "busqueda-paginas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Detiene los hilos de lectura de páginas al cerrar el contexto.
+     */
+    @PreDestroy
+    public void detener() {
+        lectorPaginas.shutdownNow();
+    }
+
+    /**
+     * Resultado de buscar un título en las páginas de la API.
+     *
+     * @param coincidencia El libro con exactamente ese título, o null si no se encontró.
+     * @param completa     true si se revisaron todas las páginas de resultados sin errores.
+     */
+    private record ResultadoBusqueda(LibroDTO coincidencia, boolean completa) {
+    }
+
+    /**
+     * Cerrojos que serializan la creación de autores con el mismo nombre, para que dos búsquedas
+     * simultáneas de libros del mismo autor no lo registren dos veces.
+     */
+    private final ReentrantLock[] cerrojosAutor = Stream.generate(ReentrantLock::new)
+            .limit(CERROJOS_AUTOR)
+            .toArray(ReentrantLock[]::new);
+
+    /**
+     * Busca un libro por su título y lo registra si la API tiene uno con exactamente ese título.
+     * Primero se consultan los libros pendientes de persistir, el catálogo local y la caché de títulos
+     * no encontrados, de modo que solo se accede a la red cuando es necesario.
+     *
+     * @param titulo El título del libro.
+     * @return El resultado de la búsqueda.
+     */
+    public ResultadoRegistro registrar(String titulo) {
+        RegistroLibroEvento evento = new RegistroLibroEvento();
+        evento.begin();
+        ResultadoRegistro resultado = buscarYRegistrar(titulo);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.setTitulo(titulo);
+            evento.setEstado(resultado.estado().name());
+            evento.commit();
+        }
+        return resultado;
+    }
+
+    private ResultadoRegistro buscarYRegistrar(String titulo) {
+        if (escrituraDiferida.estaPendiente(titulo) || estaRegistrado(titulo)) {
+            return ResultadoRegistro.de(titulo, Estado.DUPLICADO);
+        }
+        if (titulosNoEncontrados.contiene(titulo)) {
+            return ResultadoRegistro.de(titulo, Estado.NO_ENCONTRADO);
+        }
+        try {
+            ResultadoBusqueda busqueda = buscarEnApi(titulo);
+            if (busqueda.coincidencia() == null) {
+                // Solo se recuerda el título si se revisaron todas las páginas previstas
+                if (busqueda.completa()) {
+                    titulosNoEncontrados.registrar(titulo);
+                }
+                return ResultadoRegistro.de(titulo, Estado.NO_ENCONTRADO);
+            }
+            return guardar(titulo, busqueda.coincidencia());
+        } catch (LibroDuplicadoException e) {
+            // Otro registro del mismo título se confirmó entre la consulta y la inserción
+            return ResultadoRegistro.de(titulo, Estado.DUPLICADO);
+        } catch (RuntimeException e) {
+            return new ResultadoRegistro(titulo, Estado.ERROR, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Comprueba si el título ya está en el catálogo local.
+     */
+    private boolean estaRegistrado(String titulo) {
+        VerificacionDuplicadoEvento evento = new VerificacionDuplicadoEvento();
+        evento.begin();
+        boolean registrado = libroService.obtenerLibroPorTitulo(titulo).isPresent();
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.setTitulo(titulo);
+            evento.setDuplicado(registrado);
+            evento.commit();
+        }
+        return registrado;
+    }
+
+    /**
+     * Registra los títulos de un archivo de texto, uno por línea, buscándolos en paralelo.
+     * Las líneas en blanco se ignoran. Cada título pasa por el mismo proceso que una búsqueda individual.
+     *
+     * @param archivo El archivo con los títulos, codificado en UTF-8.
+     * @return El resumen del lote.
+     * @throws UncheckedIOException Si no se puede leer el archivo.
+     */
+    public ResumenLote registrarLote(Path archivo) {
+        List<String> titulos;
+        try (Stream<String> lineas = Files.lines(archivo, StandardCharsets.UTF_8)) {
+            titulos = lineas.map(String::strip).filter(linea -> !linea.isEmpty()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de títulos " + archivo, e);
+        }
+        return registrarLote(titulos);
+    }
+
+    /**
+     * Registra una lista de títulos buscándolos en paralelo, con como máximo
+     * literalura.lote.concurrencia búsquedas a la vez.
+     *
+     * @param titulos Los títulos a registrar.
+     * @return El resumen del lote.
+     */
+    public ResumenLote registrarLote(List<String> titulos) {
+        long inicio = System.nanoTime();
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService busquedas = Executors.newFixedThreadPool(Math.max(1, concurrencia), runnable -> {
+            Thread hilo = new Thread(runnable, "registro-lote-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        Map<Estado, Integer> cuentas = new EnumMap<>(Estado.class);
+        try {
+            List<Future<ResultadoRegistro>> resultados = new ArrayList<>(titulos.size());
+            for (String titulo : titulos) {
+                resultados.add(busquedas.submit(() -> registrar(titulo)));
+            }
+            for (Future<ResultadoRegistro> futuro : resultados) {
+                ResultadoRegistro resultado = futuro.get();
+                cuentas.merge(resultado.estado(), 1, Integer::sum);
+                if (resultado.estado() == Estado.ERROR) {
+                    log.warn("No se pudo registrar '{}': {}", resultado.titulo(), resultado.detalle());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("El registro en lote fue interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error en el registro en lote", e.getCause());
+        } finally {
+            busquedas.shutdownNow();
+        }
+        return new ResumenLote(titulos.size(),
+                cuentas.getOrDefault(Estado.REGISTRADO, 0),
+                cuentas.getOrDefault(Estado.ACEPTADO, 0),
+                cuentas.getOrDefault(Estado.DUPLICADO, 0),
+                cuentas.getOrDefault(Estado.NO_ENCONTRADO, 0),
+                cuentas.getOrDefault(Estado.ERROR, 0),
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Busca en la API un libro con exactamente el título dado.
+     * Se descarga la primera página de resultados; si no contiene el título y hay más páginas, las siguientes
+     * (hasta literalura.busqueda.paginas-maximas en total) se descargan a la vez. En cuanto una página contiene
+     * el título, se devuelve la coincidencia sin esperar al resto y se cancelan las demás páginas: las que esperan
+     * su turno en el limitador de tasa no se envían, las enviadas se abortan, y las respuestas que ya llegaron,
+     * incluidas las que se están deserializando, se descartan sin leer el resto ni almacenarlas en la caché.
+     *
+     * @param titulo El título buscado.
+     * @return La coincidencia, si la hay, e indicación de si se revisaron todas las páginas previstas.
+     */
+    private ResultadoBusqueda buscarEnApi(String titulo) {
+        String urlBusqueda = urlApi + "?search=" + URLEncoder.encode(titulo, StandardCharsets.UTF_8);
+        String tituloNormalizado = Normalizador.normalizarTitulo(titulo);
+        // Deserializa la respuesta directamente desde el flujo HTTP, sin materializarla en una cadena
+        RespuestaLibrosDTO primera = leerPagina(titulo, 1, descargar(titulo, urlBusqueda, 1));
+        LibroDTO coincidencia = buscarCoincidencia(primera, tituloNormalizado);
+        if (coincidencia != null || primera.getSiguiente() == null || primera.getLibros().isEmpty()) {
+            return new ResultadoBusqueda(coincidencia, true);
+        }
+
+        int porPagina = primera.getLibros().size();
+        // Si la API no informa el total, se revisan las páginas permitidas sin dar la búsqueda por completa
+        int totalPaginas = primera.getTotal() > 0 ? (primera.getTotal() + porPagina - 1) / porPagina : Integer.MAX_VALUE;
+        int ultimaPagina = Math.min(totalPaginas, paginasMaximas);
+        if (ultimaPagina < 2) {
+            return new ResultadoBusqueda(null, totalPaginas <= 1);
+        }
+
+        CompletableFuture<LibroDTO> resultado = new CompletableFuture<>();
+        List<CompletableFuture<InputStream>> paginas = new ArrayList<>(ultimaPagina - 1);
+        AtomicInteger pendientes = new AtomicInteger(ultimaPagina - 1);
+        AtomicInteger fallidas = new AtomicInteger();
+        for (int pagina = 2; pagina <= ultimaPagina; pagina++) {
+            int numeroPagina = pagina;
+            String urlPagina = urlBusqueda + "&page=" + pagina;
+            DescargaApiEvento descarga = new DescargaApiEvento();
+            descarga.begin();
+            CompletableFuture<InputStream> flujoPagina;
+            try {
+                flujoPagina = consumoAPI.obtenerFlujoAsync(urlPagina);
+            } catch (RuntimeException e) {
+                // El circuito abierto o un error al preparar la solicitud fallan antes de devolver el futuro;
+                // la página cuenta como revisada sin éxito para que la espera del resultado termine
+                flujoPagina = CompletableFuture.failedFuture(e);
+            }
+            paginas.add(flujoPagina);
+            flujoPagina
+                    .whenComplete((flujo, error) -> terminarDescarga(descarga, titulo, urlPagina, numeroPagina, error == null))
+                    // El cuerpo se lee fuera de los hilos del cliente HTTP, que son los que lo reciben
+                    .thenApplyAsync(flujo -> {
+                        if (resultado.isDone()) {
+                            consumoAPI.descartar(flujo);
+                            return null;
+                        }
+                        return buscarCoincidencia(leerPagina(titulo, numeroPagina, detenerAlTerminar(flujo, resultado)), tituloNormalizado);
+                    }, lectorPaginas)
+                    .whenComplete((encontrado, error) -> {
+                        if (error != null) {
+                            fallidas.incrementAndGet();
+                            log.debug("No se pudo revisar {}: {}", urlPagina, error.getMessage());
+                        } else if (encontrado != null) {
+                            resultado.complete(encontrado);
+                        }
+                        if (pendientes.decrementAndGet() == 0) {
+                            resultado.complete(null);
+                        }
+                    });
+        }
+        LibroDTO encontrado = resultado.join();
+        if (encontrado != null) {
+            paginas.forEach(pagina -> pagina.cancel(true));
+        }
+        boolean completa = encontrado != null || (fallidas.get() == 0 && ultimaPagina == totalPaginas);
+        return new ResultadoBusqueda(encontrado, completa);
+    }
+
+    /**
+     * Envuelve el cuerpo de una página para que deje de leerse en cuanto la búsqueda termine.
+     * La lectura siguiente falla con una InterruptedIOException, y al cerrarlo se descarta sin leer el resto,
+     * de modo que una página lenta no se sigue descargando cuando otra ya contenía el título.
+     */
+    private InputStream detenerAlTerminar(InputStream flujo, CompletableFuture<?> busqueda) {
+        return new FilterInputStream(flujo) {
+            @Override
+            public int read() throws IOException {
+                comprobar();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                comprobar();
+                return super.read(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (busqueda.isDone()) {
+                    consumoAPI.descartar(in);
+                } else {
+                    super.close();
+                }
+            }
+
+            private void comprobar() throws InterruptedIOException {
+                if (busqueda.isDone()) {
+                    throw new InterruptedIOException("La búsqueda ya terminó");
+                }
+            }
+        };
+    }
+
+    /**
+     * Solicita una página de resultados a la API y devuelve el flujo de su cuerpo.
+     */
+    private InputStream descargar(String titulo, String url, int pagina) {
+        DescargaApiEvento evento = new DescargaApiEvento();
+        evento.begin();
+        boolean correcta = false;
+        try {
+            InputStream flujo = consumoAPI.obtenerFlujo(url);
+            correcta = true;
+            return flujo;
+        } finally {
+            terminarDescarga(evento, titulo, url, pagina, correcta);
+        }
+    }
+
+    private static void terminarDescarga(DescargaApiEvento evento, String titulo, String url, int pagina, boolean correcta) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.setTitulo(titulo);
+            evento.setUrl(url);
+            evento.setPagina(pagina);
+            evento.setCorrecta(correcta);
+            evento.commit();
+        }
+    }
+
+    /**
+     * Deserializa una página de resultados desde el flujo de la respuesta.
+     * Los bytes del cuerpo solo se cuentan mientras hay una grabación de JFR que registra el evento.
+     */
+    private RespuestaLibrosDTO leerPagina(String titulo, int pagina, InputStream flujo) {
+        DeserializacionEvento evento = new DeserializacionEvento();
+        if (!evento.isEnabled()) {
+            return convierteDatos.obtenerDatos(flujo, RespuestaLibrosDTO.class);
+        }
+        FlujoContado contado = new FlujoContado(flujo);
+        RespuestaLibrosDTO respuesta = null;
+        evento.begin();
+        try {
+            respuesta = convierteDatos.obtenerDatos(contado, RespuestaLibrosDTO.class);
+            return respuesta;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.setTitulo(titulo);
+                evento.setPagina(pagina);
+                evento.setBytes(contado.getLeidos());
+                evento.setResultados(respuesta != null && respuesta.getLibros() != null ? respuesta.getLibros().size() : -1);
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Busca en una página de resultados el primer libro cuyo título normalizado coincide.
+     *
+     * @return El libro, o null si ninguno coincide.
+     */
+    private static LibroDTO buscarCoincidencia(RespuestaLibrosDTO respuesta, String tituloNormalizado) {
+        return respuesta.getLibros().stream()
+                .filter(libroDTO -> tituloNormalizado.equals(Normalizador.normalizarTitulo(libroDTO.getTitulo())))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Persiste un libro encontrado en la API junto con su autor, creando el autor si no existe,
+     * o lo entrega a la escritura diferida si está habilitada.
+     *
+     * @throws LibroDuplicadoException Si el título se registró mientras tanto.
+     */
+    private ResultadoRegistro guardar(String titulo, LibroDTO libroDTO) {
+        if (escrituraDiferidaHabilitada) {
+            escrituraDiferida.encolar(libroDTO);
+            return new ResultadoRegistro(titulo, Estado.ACEPTADO, libroDTO, null);
+        }
+        Libro libro = mapeadorLibros.aLibro(libroDTO);
+        AutorDTO autorDTO = mapeadorLibros.primerAutor(libroDTO);
+        if (autorDTO != null && autorDTO.getNombre() != null) {
+            libro.setAutor(resolverAutor(titulo, autorDTO));
+        }
+        insertar(titulo, libro);
+        return new ResultadoRegistro(titulo, Estado.REGISTRADO, libroDTO, null);
+    }
+
+    /**
+     * Inserta el libro en la base de datos con la inserción por identificador de Gutendex.
+     * Si el libro no resulta nuevo (su identificador o su título ya estaban registrados), se informa como duplicado.
+     *
+     * @throws LibroDuplicadoException Si el libro o su título se registraron mientras tanto.
+     */
+    private void insertar(String titulo, Libro libro) {
+        InsercionLibroEvento evento = new InsercionLibroEvento();
+        evento.begin();
+        Estado estado = Estado.ERROR;
+        try {
+            if (libroService.guardarLibros(List.of(libro)).insertados() == 0) {
+                throw new LibroDuplicadoException(titulo, null);
+            }
+            estado = Estado.REGISTRADO;
+        } catch (LibroDuplicadoException e) {
+            estado = Estado.DUPLICADO;
+            throw e;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.setTitulo(titulo);
+                evento.setResultado(estado.name());
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el autor registrado con el nombre dado o lo crea.
+     * La consulta y la creación se hacen bajo el cerrojo del nombre, de modo que las búsquedas
+     * simultáneas de libros del mismo autor comparten un único registro.
+     */
+    private Autor resolverAutor(String titulo, AutorDTO autorDTO) {
+        ResolucionAutorEvento evento = new ResolucionAutorEvento();
+        evento.begin();
+        String clave = Normalizador.normalizarNombre(autorDTO.getNombre());
+        ReentrantLock cerrojo = cerrojosAutor[Math.floorMod(clave.hashCode(), CERROJOS_AUTOR)];
+        long inicioEspera = System.nanoTime();
+        cerrojo.lock();
+        long espera = System.nanoTime() - inicioEspera;
+        Autor autor;
+        boolean creado;
+        try {
+            Optional<Autor> registrado = autorService.obtenerAutorPorNombre(autorDTO.getNombre());
+            creado = registrado.isEmpty();
+            autor = creado ? autorService.crearAutor(mapeadorLibros.aAutor(autorDTO)) : registrado.get();
+        } finally {
+            cerrojo.unlock();
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.setTitulo(titulo);
+            evento.setAutor(autorDTO.getNombre());
+            evento.setCreado(creado);
+            evento.setEsperaCerrojo(espera);
+            evento.commit();
+        }
+        return autor;
+    }
+}
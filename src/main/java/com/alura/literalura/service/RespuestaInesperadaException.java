@@ -0,0 +1,60 @@
+package com.alura.literalura.service;
+
+import java.time.Duration;
+
+/**
+ * Excepción lanzada cuando la API responde con un código de estado que no contiene datos.
+ */
+public class RespuestaInesperadaException extends RuntimeException {
+
+    /**
+     * Código de estado HTTP de la respuesta.
+     */
+    private final int estado;
+
+    /**
+     * Tiempo de espera indicado por la cabecera Retry-After, o null si no se indicó.
+     */
+    private final Duration reintentarTras;
+
+    /**
+     * Crea la excepción para una respuesta.
+     *
+     * @param url            La URL de la solicitud.
+     * @param estado         El código de estado HTTP.
+     * @param reintentarTras El tiempo indicado por Retry-After, o null.
+     */
+    public RespuestaInesperadaException(String url, int estado, Duration reintentarTras) {
+        super("La API respondió con el estado " + estado + " a " + url);
+        this.estado = estado;
+        this.reintentarTras = reintentarTras;
+    }
+
+    /**
+     * Obtiene el código de estado HTTP de la respuesta.
+     *
+     * @return El código de estado.
+     */
+    public int getEstado() {
+        return estado;
+    }
+
+    /**
+     * Obtiene el tiempo de espera indicado por la cabecera Retry-After.
+     *
+     * @return El tiempo de espera, o null si no se indicó.
+     */
+    public Duration getReintentarTras() {
+        return reintentarTras;
+    }
+
+    /**
+     * Indica si el estado corresponde a un fallo transitorio del servicio que conviene reintentar:
+     * 429 (demasiadas solicitudes), 500, 502, 503 y 504.
+     *
+     * @return true si la solicitud puede reintentarse.
+     */
+    public boolean esReintentable() {
+        return estado == 429 || estado == 500 || estado == 502 || estado == 503 || estado == 504;
+    }
+}
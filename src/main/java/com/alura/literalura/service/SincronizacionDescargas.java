@@ -0,0 +1,133 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.LibroDTO;
+import com.alura.literalura.dto.RespuestaLibrosDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tarea periódica que mantiene al día el número de descargas de los libros registrados.
+ * Cada ejecución toma los libros que no se comprueban desde hace más de literalura.sincronizacion.antiguedad
+ * (la marca de agua es la columna descargas_actualizadas de cada libro) y los consulta a la API por
+ * identificador, muchos a la vez, con el parámetro ids. Solo se actualizan las filas cuyo número cambió.
+ * Las solicitudes pasan por ConsumoAPI, de modo que respetan el límite de tasa, los reintentos y el circuito,
+ * pero siempre se revalidan con la API: una copia obsoleta de la caché marcaría los libros como comprobados
+ * sin haber consultado su número de descargas actual.
+ */
+@Service
+@ConditionalOnProperty(name = "literalura.sincronizacion.habilitada", havingValue = "true", matchIfMissing = true)
+public class SincronizacionDescargas {
+
+    private static final Logger log = LoggerFactory.getLogger(SincronizacionDescargas.class);
+
+    @Autowired
+    private ConsumoAPI consumoAPI;
+
+    @Autowired
+    private IConvierteDatos convierteDatos;
+
+    @Autowired
+    private LibroService libroService;
+
+    /**
+     * URL del recurso de libros de la API.
+     */
+    @Value("${literalura.api.url:https://gutendex.com/books/}")
+    private String urlApi;
+
+    /**
+     * Número de identificadores que se consultan en cada solicitud.
+     * La API devuelve 32 libros por página; con más identificadores se siguen los enlaces "next".
+     */
+    @Value("${literalura.sincronizacion.ids-por-solicitud:32}")
+    private int idsPorSolicitud;
+
+    /**
+     * Tiempo a partir del cual el número de descargas de un libro se considera desactualizado.
+     */
+    @Value("${literalura.sincronizacion.antiguedad:24h}")
+    private Duration antiguedad;
+
+    /**
+     * Número máximo de libros que se revisan en cada ejecución; el resto queda para las siguientes.
+     */
+    @Value("${literalura.sincronizacion.maximo-por-ejecucion:10000}")
+    private int maximoPorEjecucion;
+
+    /**
+     * Ejecuta la sincronización periódicamente. Un error detiene la ejecución en curso, pero los lotes
+     * ya aplicados quedan marcados y la siguiente ejecución continúa con los pendientes.
+     */
+    @Scheduled(initialDelayString = "${literalura.sincronizacion.retardo-inicial:1m}",
+            fixedDelayString = "${literalura.sincronizacion.intervalo:1h}")
+    public void sincronizarPeriodicamente() {
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            log.warn("Sincronización de descargas interrumpida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Revisa los libros desactualizados y aplica los cambios en el número de descargas.
+     * Los cambios de cada grupo de identificadores se guardan en cuanto llega su respuesta.
+     *
+     * @return El número de libros cuyo número de descargas cambió.
+     */
+    public int sincronizar() {
+        long inicio = System.nanoTime();
+        Instant ahora = Instant.now();
+        Map<Integer, Integer> pendientes = libroService.obtenerDescargasPendientes(ahora.minus(antiguedad), maximoPorEjecucion);
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> ids = new ArrayList<>(pendientes.keySet());
+        int solicitudes = 0;
+        int actualizados = 0;
+        for (int desde = 0; desde < ids.size(); desde += idsPorSolicitud) {
+            List<Integer> grupo = ids.subList(desde, Math.min(desde + idsPorSolicitud, ids.size()));
+            Map<Integer, Integer> cambios = new HashMap<>();
+            String url = urlApi + "?ids=" + grupo.stream().map(String::valueOf).collect(Collectors.joining(","));
+            while (url != null) {
+                RespuestaLibrosDTO respuesta = descargar(url);
+                solicitudes++;
+                for (LibroDTO libroDTO : respuesta.getLibros()) {
+                    Integer registradas = pendientes.get(libroDTO.getId());
+                    if (registradas != null && registradas != libroDTO.getNumeroDescargas()) {
+                        cambios.put(libroDTO.getId(), libroDTO.getNumeroDescargas());
+                    }
+                }
+                url = respuesta.getSiguiente();
+            }
+            actualizados += libroService.actualizarDescargas(cambios, grupo, ahora);
+        }
+        log.info("Sincronización de descargas: {} libros revisados con {} solicitudes, {} actualizados en {} ms",
+                ids.size(), solicitudes, actualizados, Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        return actualizados;
+    }
+
+    private RespuestaLibrosDTO descargar(String url) {
+        try (InputStream flujo = consumoAPI.obtenerFlujoRevalidado(url)) {
+            return convierteDatos.obtenerDatos(flujo, RespuestaLibrosDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer la respuesta de " + url, e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.alura.literalura.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Flujo de entrada que cuenta los bytes leídos del flujo que envuelve.
+ * Opcionalmente entrega el total, una sola vez, cuando se cierra.
+ */
+public class FlujoContado extends FilterInputStream {
+
+    private final LongConsumer alCerrar;
+    private final AtomicBoolean cerrado = new AtomicBoolean();
+    private long leidos;
+
+    /**
+     * @param flujo El flujo a contar.
+     */
+    public FlujoContado(InputStream flujo) {
+        this(flujo, total -> {
+        });
+    }
+
+    /**
+     * @param flujo    El flujo a contar.
+     * @param alCerrar La acción que recibe el total de bytes leídos al cerrar el flujo.
+     */
+    public FlujoContado(InputStream flujo, LongConsumer alCerrar) {
+        super(flujo);
+        this.alCerrar = alCerrar;
+    }
+
+    /**
+     * @return Los bytes leídos (o saltados) hasta el momento.
+     */
+    public long getLeidos() {
+        return leidos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int valor = super.read();
+        if (valor >= 0) {
+            leidos++;
+        }
+        return valor;
+    }
+
+    @Override
+    public int read(byte[] destino, int desde, int longitud) throws IOException {
+        int cantidad = super.read(destino, desde, longitud);
+        if (cantidad > 0) {
+            leidos += cantidad;
+        }
+        return cantidad;
+    }
+
+    @Override
+    public long skip(long cantidad) throws IOException {
+        long saltados = super.skip(cantidad);
+        leidos += saltados;
+        return saltados;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (cerrado.compareAndSet(false, true)) {
+                alCerrar.accept(leidos);
+            }
+        }
+    }
+}
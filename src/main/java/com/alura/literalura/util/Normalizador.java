@@ -0,0 +1,56 @@
+package com.alura.literalura.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidades para normalizar textos antes de compararlos o usarlos como claves.
+ */
+public final class Normalizador {
+
+    /**
+     * Secuencias de espacios en blanco consecutivos.
+     */
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    /**
+     * Marcas combinantes (acentos, diéresis, tildes) que quedan separadas tras la descomposición NFD.
+     */
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private Normalizador() {
+    }
+
+    /**
+     * Normaliza un nombre: forma Unicode NFC, espacios recortados y colapsados, y minúsculas.
+     *
+     * @param texto El texto a normalizar.
+     * @return El texto normalizado, o null si el texto es null.
+     */
+    public static String normalizarNombre(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String compuesto = Normalizer.normalize(texto, Normalizer.Form.NFC);
+        return ESPACIOS.matcher(compuesto.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza un título para compararlo sin distinguir mayúsculas ni acentos:
+     * se eliminan las marcas diacríticas, se recortan y colapsan los espacios y se pasa a minúsculas.
+     * Es la clave del índice único de títulos de libros, por lo que no debe cambiar sin migrar los datos.
+     *
+     * @param texto El texto a normalizar.
+     * @return El texto normalizado, o null si el texto es null.
+     */
+    public static String normalizarTitulo(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        // Se recompone para que los caracteres sin marcas (p. ej. el hangul) recuperen su forma y longitud originales
+        String compuesto = Normalizer.normalize(sinMarcas, Normalizer.Form.NFC);
+        return ESPACIOS.matcher(compuesto.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,32 @@
+package com.alura.literalura.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para coordinar acciones en memoria con las transacciones de la base de datos.
+ */
+public final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Ejecuta una acción cuando se confirma la transacción en curso, o de inmediato si no hay ninguna.
+     * Sirve para actualizar estructuras en memoria (cachés, índices) sin reflejar cambios que un rollback desharía.
+     *
+     * @param accion La acción a ejecutar.
+     */
+    public static void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.alura.literalura.util;
+
+import java.util.Arrays;
+
+/**
+ * Ventana deslizante con las últimas latencias observadas, para estimar sus percentiles.
+ * Guarda un número fijo de muestras en un búfer circular; los percentiles se calculan ordenando
+ * una copia, lo que es barato para el tamaño de ventana usado.
+ */
+public class VentanaLatencias {
+
+    private final long[] muestras;
+    private int siguiente;
+    private int cantidad;
+
+    /**
+     * Crea una ventana con capacidad para el número de muestras indicado.
+     *
+     * @param capacidad El número máximo de muestras que se conservan.
+     */
+    public VentanaLatencias(int capacidad) {
+        this.muestras = new long[capacidad];
+    }
+
+    /**
+     * Registra una latencia, desplazando la más antigua si la ventana está llena.
+     *
+     * @param nanos La latencia en nanosegundos.
+     */
+    public synchronized void registrar(long nanos) {
+        muestras[siguiente] = nanos;
+        siguiente = (siguiente + 1) % muestras.length;
+        cantidad = Math.min(cantidad + 1, muestras.length);
+    }
+
+    /**
+     * Obtiene el número de muestras registradas en la ventana.
+     *
+     * @return El número de muestras.
+     */
+    public synchronized int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Calcula un percentil de las latencias de la ventana.
+     *
+     * @param percentil El percentil, entre 0 y 100.
+     * @return La latencia del percentil en nanosegundos, o -1 si la ventana está vacía.
+     */
+    public long percentil(double percentil) {
+        long[] copia;
+        synchronized (this) {
+            if (cantidad == 0) {
+                return -1;
+            }
+            copia = Arrays.copyOf(muestras, cantidad);
+        }
+        Arrays.sort(copia);
+        int indice = (int) Math.ceil(percentil / 100.0 * copia.length) - 1;
+        return copia[Math.max(0, Math.min(indice, copia.length - 1))];
+    }
+}
@@ -0,0 +1,17 @@
+-- Índices que Hibernate no puede declarar con anotaciones.
+-- Se ejecuta después de que Hibernate actualice el esquema (spring.jpa.defer-datasource-initialization).
+
+-- Periodo de vida de cada autor como rango [nacimiento, fallecimiento); un fallecimiento nulo deja el rango abierto.
+-- Sirve la consulta de autores vivos en un año (operador @>) sin recorrer toda la tabla.
+CREATE INDEX IF NOT EXISTS idx_autores_vida ON autores USING gist (
+    int4range(ano_nacimiento,
+              CASE WHEN ano_fallecimiento IS NULL THEN NULL ELSE greatest(ano_fallecimiento, ano_nacimiento) END,
+              '[)')
+);
+
+-- Alinea las secuencias de identificadores con los datos existentes. Las bases de datos creadas cuando los
+-- identificadores eran IDENTITY tienen filas con ids mayores que el valor inicial de la secuencia, y el
+-- optimizador pooled de Hibernate (allocationSize Libro.BLOQUE_IDS, 50) asignaría ids repetidos. Con la secuencia en max(id),
+-- el siguiente nextval reserva el bloque (max(id), max(id) + 50]. Solo se avanza: nunca se retrocede una secuencia.
+SELECT setval('autores_seq', greatest((SELECT max(id) FROM autores), (SELECT last_value FROM autores_seq)));
+SELECT setval('libros_seq', greatest((SELECT max(id) FROM libros), (SELECT last_value FROM libros_seq)));
@@ -2,10 +2,26 @@ package com.alura.literalura;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// El perfil web evita que el menú de consola bloquee la prueba esperando la entrada estándar
 @SpringBootTest
+@ActiveProfiles(LiteraluraApplication.PERFIL_WEB)
 class LiteraluraApplicationTests {
 
+	// El diario de la escritura diferida va a un directorio temporal, no al del usuario
+	@DynamicPropertySource
+	static void directorioEscrituraDiferida(DynamicPropertyRegistry registro) throws IOException {
+		Path directorio = Files.createTempDirectory("literalura-pruebas");
+		registro.add("literalura.escritura-diferida.directorio", directorio::toString);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,103 @@
+package com.alura.literalura.controller;
+
+import com.alura.literalura.LiteraluraApplication;
+import com.alura.literalura.config.WebConfig;
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.dto.ResultadoRegistro;
+import com.alura.literalura.service.EstadisticasDescargas;
+import com.alura.literalura.service.LibroService;
+import com.alura.literalura.service.RegistroLibroService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de la API REST de libros: paginación, cabeceras de caché y códigos de estado del registro.
+ */
+@WebMvcTest(LibroController.class)
+@Import(WebConfig.class)
+@ActiveProfiles(LiteraluraApplication.PERFIL_WEB)
+class LibroControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private LibroService libroService;
+
+	@MockitoBean
+	private RegistroLibroService registroLibroService;
+
+	@MockitoBean
+	private EstadisticasDescargas estadisticasDescargas;
+
+	@Test
+	void listaLibrosConEnlaceALaPaginaSiguiente() throws Exception {
+		List<LibroResumen> libros = List.of(
+				new LibroResumen(3L, "Emma", "Austen, Jane", "en", 100),
+				new LibroResumen(7L, "Dracula", "Stoker, Bram", "en", 90));
+		when(libroService.listarLibrosDesde(0, 2)).thenReturn(new SliceImpl<>(libros, PageRequest.of(0, 2), true));
+
+		mockMvc.perform(get("/api/libros?tamano=2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.elementos.length()").value(2))
+				.andExpect(jsonPath("$.siguiente").value("http://localhost/api/libros?tamano=2&desde=7"))
+				.andExpect(header().string("Cache-Control", "max-age=60, public"));
+	}
+
+	@Test
+	void respondeNoModificadoSiElEtagCoincide() throws Exception {
+		List<LibroResumen> libros = List.of(new LibroResumen(1L, "Emma", "Austen, Jane", "en", 100));
+		when(libroService.listarLibrosPorIdiomaDesde("en", 0, 50)).thenReturn(new SliceImpl<>(libros, PageRequest.of(0, 50), false));
+
+		String etag = mockMvc.perform(get("/api/libros").param("idioma", "EN"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.siguiente").doesNotExist())
+				.andReturn().getResponse().getHeader("ETag");
+
+		mockMvc.perform(get("/api/libros").param("idioma", "EN").header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void registraUnLibroYRechazaLosDuplicados() throws Exception {
+		when(registroLibroService.registrar("Emma"))
+				.thenReturn(new ResultadoRegistro("Emma", ResultadoRegistro.Estado.REGISTRADO, null, null));
+		when(registroLibroService.registrar("Dracula"))
+				.thenReturn(ResultadoRegistro.de("Dracula", ResultadoRegistro.Estado.DUPLICADO));
+
+		MvcResult registro = mockMvc.perform(post("/api/libros").contentType(MediaType.APPLICATION_JSON).content("{\"titulo\":\" Emma \"}"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(registro))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.estado").value("REGISTRADO"));
+
+		MvcResult duplicado = mockMvc.perform(post("/api/libros").contentType(MediaType.APPLICATION_JSON).content("{\"titulo\":\"Dracula\"}"))
+				.andReturn();
+		mockMvc.perform(asyncDispatch(duplicado))
+				.andExpect(status().isConflict());
+
+		mockMvc.perform(post("/api/libros").contentType(MediaType.APPLICATION_JSON).content("{\"titulo\":\"\"}"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,157 @@
+package com.alura.literalura.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de la resiliencia de ConsumoAPI (reintentos, cortocircuito y cobertura) contra un servidor HTTP local.
+ */
+class ConsumoAPITest {
+
+	private static final String CUERPO = "{\"count\":0,\"results\":[]}";
+
+	private HttpServer servidor;
+	private ExecutorService hilosServidor;
+	private final AtomicInteger solicitudes = new AtomicInteger();
+	private ConsumoAPI consumoAPI;
+	private CircuitoAPI circuito;
+	private final MeterRegistry registroMetricas = new SimpleMeterRegistry();
+
+	@BeforeEach
+	void iniciar() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		hilosServidor = Executors.newCachedThreadPool();
+		servidor.setExecutor(hilosServidor);
+		servidor.start();
+
+		CacheRespuestasHttp cache = new CacheRespuestasHttp();
+		ReflectionTestUtils.setField(cache, "habilitada", false);
+		LimitadorTasa limitador = new LimitadorTasa();
+		ReflectionTestUtils.setField(limitador, "tasa", 0.0);
+		circuito = new CircuitoAPI();
+		ReflectionTestUtils.setField(circuito, "umbralFallos", 5);
+		ReflectionTestUtils.setField(circuito, "esperaMs", 60_000L);
+
+		consumoAPI = new ConsumoAPI();
+		ReflectionTestUtils.setField(consumoAPI, "httpClient", HttpClient.newHttpClient());
+		ReflectionTestUtils.setField(consumoAPI, "cacheRespuestas", cache);
+		ReflectionTestUtils.setField(consumoAPI, "limitador", limitador);
+		ReflectionTestUtils.setField(consumoAPI, "circuito", circuito);
+		ReflectionTestUtils.setField(consumoAPI, "registroMetricas", registroMetricas);
+		ReflectionTestUtils.setField(consumoAPI, "tiempoLecturaMs", 5_000L);
+		ReflectionTestUtils.setField(consumoAPI, "maximoReintentos", 3);
+		ReflectionTestUtils.setField(consumoAPI, "esperaBaseMs", 10L);
+		ReflectionTestUtils.setField(consumoAPI, "esperaMaximaMs", 100L);
+		ReflectionTestUtils.setField(consumoAPI, "coberturaHabilitada", false);
+		ReflectionTestUtils.setField(consumoAPI, "muestrasMinimasCobertura", 20);
+		ReflectionTestUtils.setField(consumoAPI, "retardoMinimoCoberturaMs", 50L);
+	}
+
+	@AfterEach
+	void detener() {
+		servidor.stop(0);
+		hilosServidor.shutdownNow();
+	}
+
+	@Test
+	void reintentaLasRespuestasTransitorias() {
+		servidor.createContext("/books/", intercambio ->
+				responder(intercambio, solicitudes.incrementAndGet() <= 2 ? 503 : 200));
+
+		assertThat(consumoAPI.obtenerDatos(url())).isEqualTo(CUERPO);
+		assertThat(solicitudes).hasValue(3);
+		assertThat(registroMetricas.get("literalura.api.solicitudes").tag("estado", "503").timer().count()).isEqualTo(2);
+		assertThat(registroMetricas.get("literalura.api.solicitudes").tag("estado", "200").timer().count()).isEqualTo(1);
+		assertThat(registroMetricas.get("literalura.api.reintentos").counter().count()).isEqualTo(2);
+		assertThat(registroMetricas.get("literalura.api.respuestas.tamano").summary().totalAmount()).isEqualTo(CUERPO.length());
+	}
+
+	@Test
+	void noReintentaLosErroresDelCliente() {
+		servidor.createContext("/books/", intercambio -> {
+			solicitudes.incrementAndGet();
+			responder(intercambio, 404);
+		});
+
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url()))
+				.isInstanceOf(RespuestaInesperadaException.class)
+				.hasMessageContaining("404");
+		assertThat(solicitudes).hasValue(1);
+		assertThat(circuito.getEstado()).isEqualTo(CircuitoAPI.Estado.CERRADO);
+	}
+
+	@Test
+	void abreElCircuitoTrasFallosConsecutivos() {
+		ReflectionTestUtils.setField(consumoAPI, "maximoReintentos", 0);
+		ReflectionTestUtils.setField(circuito, "umbralFallos", 2);
+		servidor.createContext("/books/", intercambio -> {
+			solicitudes.incrementAndGet();
+			responder(intercambio, 500);
+		});
+
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url())).isInstanceOf(RespuestaInesperadaException.class);
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url())).isInstanceOf(RespuestaInesperadaException.class);
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url())).isInstanceOf(CircuitoAbiertoException.class);
+		assertThat(solicitudes).hasValue(2);
+		assertThat(circuito.getEstado()).isEqualTo(CircuitoAPI.Estado.ABIERTO);
+	}
+
+	@Test
+	void cubreLasSolicitudesMasLentasQueElPercentil95() {
+		AtomicInteger lentas = new AtomicInteger();
+		servidor.createContext("/books/", intercambio -> {
+			solicitudes.incrementAndGet();
+			if (intercambio.getRequestURI().getQuery().contains("lenta") && lentas.incrementAndGet() == 1) {
+				dormir(3_000);
+			}
+			responder(intercambio, 200);
+		});
+		ReflectionTestUtils.setField(consumoAPI, "coberturaHabilitada", true);
+		for (int i = 0; i < 20; i++) {
+			consumoAPI.obtenerDatos(url() + "?rapida=" + i);
+		}
+
+		long inicio = System.nanoTime();
+		assertThat(consumoAPI.obtenerDatos(url() + "?lenta")).isEqualTo(CUERPO);
+		assertThat((System.nanoTime() - inicio) / 1_000_000).isLessThan(2_000);
+		assertThat(lentas).hasValue(2);
+	}
+
+	private String url() {
+		return "http://localhost:" + servidor.getAddress().getPort() + "/books/";
+	}
+
+	private static void responder(HttpExchange intercambio, int estado) throws IOException {
+		byte[] cuerpo = estado == 200 ? CUERPO.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		intercambio.sendResponseHeaders(estado, cuerpo.length == 0 ? -1 : cuerpo.length);
+		if (cuerpo.length > 0) {
+			intercambio.getResponseBody().write(cuerpo);
+		}
+		intercambio.close();
+	}
+
+	private static void dormir(long milisegundos) {
+		try {
+			Thread.sleep(milisegundos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.dto.EstadisticasIdioma;
+import com.alura.literalura.dto.LibroResumen;
+import com.alura.literalura.repository.LibroRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas del mantenimiento incremental del ranking y de las estadísticas, contra un repositorio simulado
+ * que responde con los libros de una lista en memoria.
+ */
+class EstadisticasDescargasTest {
+
+	private final List<LibroResumen> tabla = new ArrayList<>();
+	private LibroRepository libroRepository;
+	private EstadisticasDescargas estadisticas;
+
+	@BeforeEach
+	void iniciar() {
+		libroRepository = mock(LibroRepository.class);
+		when(libroRepository.findMasDescargados(any(Pageable.class)))
+				.thenAnswer(invocacion -> primeros(null, invocacion.getArgument(0)));
+		when(libroRepository.findMasDescargadosPorIdioma(anyString(), any(Pageable.class)))
+				.thenAnswer(invocacion -> primeros(invocacion.getArgument(0), invocacion.getArgument(1)));
+		when(libroRepository.findFilasEstadisticasPorIdioma()).thenAnswer(invocacion -> filasEstadisticas());
+
+		estadisticas = new EstadisticasDescargas();
+		ReflectionTestUtils.setField(estadisticas, "libroRepository", libroRepository);
+		ReflectionTestUtils.setField(estadisticas, "tamano", 2);
+
+		tabla.add(libro(1, "en", 100));
+		tabla.add(libro(2, "en", 300));
+		tabla.add(libro(3, "es", 50));
+		tabla.add(libro(4, "en", 200));
+		estadisticas.reconstruir();
+	}
+
+	@Test
+	void registrarLibroActualizaRankingYEstadisticas() {
+		LibroResumen nuevo = libro(5, "es", 400);
+		tabla.add(nuevo);
+		estadisticas.registrar(nuevo);
+
+		assertThat(ids(estadisticas.masDescargados(2))).containsExactly(5L, 2L);
+		assertThat(ids(estadisticas.masDescargados("es", 2))).containsExactly(5L, 3L);
+		assertThat(estadisticas.estadisticasPorIdioma())
+				.containsExactly(new EstadisticasIdioma("en", 3, 100, 300, 200.0), new EstadisticasIdioma("es", 2, 50, 400, 225.0));
+	}
+
+	@Test
+	void eliminarLibroDelRankingLoRellenaDesdeLaBaseDeDatos() {
+		LibroResumen eliminado = tabla.remove(1);
+		estadisticas.eliminar(eliminado);
+
+		assertThat(ids(estadisticas.masDescargados(2))).containsExactly(4L, 1L);
+		assertThat(estadisticas.estadisticasPorIdioma())
+				.containsExactly(new EstadisticasIdioma("en", 2, 100, 200, 150.0), new EstadisticasIdioma("es", 1, 50, 50, 50.0));
+	}
+
+	@Test
+	void actualizarDescargasReordenaElRanking() {
+		LibroResumen anterior = tabla.get(0);
+		LibroResumen nuevo = libro(1, "en", 500);
+		tabla.set(0, nuevo);
+		estadisticas.actualizar(anterior, nuevo);
+
+		assertThat(ids(estadisticas.masDescargados(2))).containsExactly(1L, 2L);
+		assertThat(ids(estadisticas.masDescargados("en", 2))).containsExactly(1L, 2L);
+		assertThat(estadisticas.estadisticasPorIdioma().get(0)).isEqualTo(new EstadisticasIdioma("en", 3, 200, 500, 1000 / 3.0));
+	}
+
+	@Test
+	void consultaMayorQueElRankingSeResuelveEnLaBaseDeDatos() {
+		assertThat(ids(estadisticas.masDescargados(3))).containsExactly(2L, 4L, 1L);
+	}
+
+	private List<LibroResumen> primeros(String idioma, Pageable pageable) {
+		return tabla.stream()
+				.filter(libro -> idioma == null || idioma.equals(libro.idioma()))
+				.sorted(Comparator.comparing(LibroResumen::numeroDescargas).thenComparing(LibroResumen::id).reversed())
+				.limit(pageable.getPageSize())
+				.toList();
+	}
+
+	private List<Object[]> filasEstadisticas() {
+		Map<String, List<LibroResumen>> porIdioma = new HashMap<>();
+		tabla.forEach(libro -> porIdioma.computeIfAbsent(libro.idioma(), idioma -> new ArrayList<>()).add(libro));
+		List<Object[]> filas = new ArrayList<>();
+		porIdioma.forEach((idioma, libros) -> filas.add(new Object[]{idioma, (long) libros.size(),
+				libros.stream().mapToInt(LibroResumen::numeroDescargas).min().getAsInt(),
+				libros.stream().mapToInt(LibroResumen::numeroDescargas).max().getAsInt(),
+				libros.stream().mapToLong(LibroResumen::numeroDescargas).sum()}));
+		return filas;
+	}
+
+	private static LibroResumen libro(long id, String idioma, int descargas) {
+		return new LibroResumen(id, "Libro " + id, null, idioma, descargas);
+	}
+
+	private static List<Long> ids(List<LibroResumen> libros) {
+		return libros.stream().map(LibroResumen::id).toList();
+	}
+}
@@ -0,0 +1,142 @@
+package com.alura.literalura.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de la sincronización de descargas contra un servidor HTTP local, con la caché HTTP en un
+ * directorio temporal: una copia almacenada de la respuesta no debe dar los libros por comprobados.
+ */
+class SincronizacionDescargasTest {
+
+	private static final int ID = 1342;
+
+	@TempDir
+	Path directorioCache;
+
+	private HttpServer servidor;
+	private ExecutorService hilosServidor;
+	private final AtomicInteger estado = new AtomicInteger(200);
+	private final AtomicInteger descargas = new AtomicInteger(100);
+	private ConsumoAPI consumoAPI;
+	private CacheRespuestasHttp cache;
+	private LibroService libroService;
+	private SincronizacionDescargas sincronizacion;
+
+	@BeforeEach
+	void iniciar() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		hilosServidor = Executors.newCachedThreadPool();
+		servidor.setExecutor(hilosServidor);
+		servidor.createContext("/books/", this::responder);
+		servidor.start();
+
+		cache = new CacheRespuestasHttp();
+		ReflectionTestUtils.setField(cache, "habilitada", true);
+		ReflectionTestUtils.setField(cache, "directorio", directorioCache.toString());
+		ReflectionTestUtils.setField(cache, "ttlMs", 3_600_000L);
+		ReflectionTestUtils.setField(cache, "obsoletaMaxMs", 86_400_000L);
+		ReflectionTestUtils.setField(cache, "tamanoMaximo", 10_000_000L);
+		LimitadorTasa limitador = new LimitadorTasa();
+		ReflectionTestUtils.setField(limitador, "tasa", 0.0);
+		CircuitoAPI circuito = new CircuitoAPI();
+		ReflectionTestUtils.setField(circuito, "umbralFallos", 5);
+		ReflectionTestUtils.setField(circuito, "esperaMs", 60_000L);
+
+		consumoAPI = new ConsumoAPI();
+		ReflectionTestUtils.setField(consumoAPI, "httpClient", HttpClient.newHttpClient());
+		ReflectionTestUtils.setField(consumoAPI, "cacheRespuestas", cache);
+		ReflectionTestUtils.setField(consumoAPI, "limitador", limitador);
+		ReflectionTestUtils.setField(consumoAPI, "circuito", circuito);
+		ReflectionTestUtils.setField(consumoAPI, "registroMetricas", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(consumoAPI, "tiempoLecturaMs", 5_000L);
+		ReflectionTestUtils.setField(consumoAPI, "maximoReintentos", 0);
+		ReflectionTestUtils.setField(consumoAPI, "coberturaHabilitada", false);
+
+		libroService = mock(LibroService.class);
+		when(libroService.obtenerDescargasPendientes(any(Instant.class), anyInt())).thenReturn(Map.of(ID, 50));
+
+		sincronizacion = new SincronizacionDescargas();
+		ReflectionTestUtils.setField(sincronizacion, "consumoAPI", consumoAPI);
+		ReflectionTestUtils.setField(sincronizacion, "convierteDatos", new ConvierteDatos());
+		ReflectionTestUtils.setField(sincronizacion, "libroService", libroService);
+		ReflectionTestUtils.setField(sincronizacion, "urlApi", url());
+		ReflectionTestUtils.setField(sincronizacion, "idsPorSolicitud", 32);
+		ReflectionTestUtils.setField(sincronizacion, "antiguedad", Duration.ofHours(24));
+		ReflectionTestUtils.setField(sincronizacion, "maximoPorEjecucion", 10_000);
+
+		// Una consulta anterior deja la respuesta en la caché; luego caduca, pero aún puede servirse obsoleta
+		consumoAPI.obtenerDatos(url() + "?ids=" + ID);
+		ReflectionTestUtils.setField(cache, "ttlMs", 0L);
+	}
+
+	@AfterEach
+	void detener() {
+		servidor.stop(0);
+		hilosServidor.shutdownNow();
+	}
+
+	@Test
+	void unaCopiaObsoletaNoAvanzaLaMarcaDeAgua() {
+		estado.set(503);
+
+		assertThatThrownBy(() -> sincronizacion.sincronizar()).isInstanceOf(RespuestaInesperadaException.class);
+		verify(libroService, never()).actualizarDescargas(anyMap(), anyCollection(), any(Instant.class));
+	}
+
+	@Test
+	void aplicaElNumeroDeDescargasActualDeLaApi() {
+		descargas.set(200);
+
+		sincronizacion.sincronizar();
+		verify(libroService).actualizarDescargas(eq(Map.of(ID, 200)), eq(List.of(ID)), any(Instant.class));
+	}
+
+	private String url() {
+		return "http://localhost:" + servidor.getAddress().getPort() + "/books/";
+	}
+
+	private void responder(HttpExchange intercambio) throws IOException {
+		if (estado.get() != 200) {
+			intercambio.sendResponseHeaders(estado.get(), -1);
+			intercambio.close();
+			return;
+		}
+		byte[] cuerpo = ("{\"count\":1,\"next\":null,\"results\":[{\"id\":" + ID + ",\"title\":\"Pride and Prejudice\","
+				+ "\"authors\":[],\"languages\":[\"en\"],\"download_count\":" + descargas.get() + "}]}")
+				.getBytes(StandardCharsets.UTF_8);
+		intercambio.sendResponseHeaders(200, cuerpo.length);
+		intercambio.getResponseBody().write(cuerpo);
+		intercambio.close();
+	}
+}